@@ -0,0 +1,39 @@
+package iseechess;
+
+/**
+ * The fixed suite of positions the benchmarks run on, so that numbers from different releases can be compared.
+ */
+final class BenchmarkPositions {
+    /**
+     * The Ruy Lopez after 3. Bb5, black to move.
+     */
+    static final String OPENING = "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3";
+
+    /**
+     * A busy middlegame with castling, en passant and promotion chances on both sides ("Kiwipete").
+     */
+    static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /**
+     * A rook and pawn endgame.
+     */
+    static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private BenchmarkPositions() {}
+
+    /**
+     * Look up a position of the suite by the name used in the benchmarks' @Param values.
+     * @param name "opening", "middlegame" or "endgame".
+     * @return the FEN string of the position.
+     */
+    static String fen(String name) {
+        if (name.equals("opening")) {
+            return OPENING;
+        } else if (name.equals("middlegame")) {
+            return MIDDLEGAME;
+        } else if (name.equals("endgame")) {
+            return ENDGAME;
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
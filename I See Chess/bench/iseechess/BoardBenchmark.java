@@ -0,0 +1,126 @@
+package iseechess;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the Board methods every move goes through.
+ * Each benchmark runs on every position of BenchmarkPositions. Benchmarks that change the board take the move back
+ * with unmakeMove() so that every invocation starts from the same position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private Board board;
+    private int[][] pieceLocations;
+    private int[] moveFrom, moveTo;
+    private MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        board = new Board(BenchmarkPositions.fen(position));
+        MoveList legal = new MoveList();
+        board.generateMoves(legal);
+        int count = 0;
+        for (int i = 0; i < legal.size(); i++) {//plays the first quiet move, so the position does not change much
+            if (!Move.is(legal.get(i), Move.CAPTURE | Move.PROMOTION)) {
+                moveFrom = new int[] {Bitboards.x(Move.from(legal.get(i))), Bitboards.y(Move.from(legal.get(i)))};
+                moveTo = new int[] {Bitboards.x(Move.to(legal.get(i))), Bitboards.y(Move.to(legal.get(i)))};
+                break;
+            }
+        }
+        int[][] locations = new int[16][];
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                Piece piece = board.getBoard()[x][y];
+                if (piece != null && piece.isWhite() == board.getIsWhitesTurn()) {
+                    locations[count++] = new int[] {x, y};
+                }
+            }
+        }
+        pieceLocations = java.util.Arrays.copyOf(locations, count);
+    }
+
+    /**
+     * The boxed move list of every piece of the player to move, as ChessPanel asks for it.
+     */
+    @Benchmark
+    public void allValidMoves(Blackhole blackhole) {
+        for (int[] location : pieceLocations) {
+            blackhole.consume(board.allValidMoves(board.getBoard()[location[0]][location[1]], location));
+        }
+    }
+
+    /**
+     * Every legal move of the player to move, packed into a reused MoveList.
+     */
+    @Benchmark
+    public int generateMoves() {
+        moves.clear();
+        board.generateMoves(moves);
+        return moves.size();
+    }
+
+    /**
+     * Whether each of the 64 squares is safe for the player to move.
+     */
+    @Benchmark
+    public int safe() {
+        int safeSquares = 0;
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                if (board.safe(new int[] {x, y}, board.getIsWhitesTurn())) {
+                    safeSquares++;
+                }
+            }
+        }
+        return safeSquares;
+    }
+
+    /**
+     * One validated move through movePiece(), including its checkConditions() call, then unmakeMove().
+     */
+    @Benchmark
+    public Piece movePiece() throws Board.ChessException {
+        Piece captured;
+        try {
+            captured = board.movePiece(moveFrom, moveTo);
+        } catch (Board.CheckmateException e) {
+            captured = null;
+        } catch (Board.StalemateException e) {
+            captured = null;
+        }
+        board.unmakeMove();
+        return captured;
+    }
+
+    /**
+     * The end of game checks on the current position. The position never changes here, so after the first call whether
+     * the player to move has a legal move comes from the Board's cache; movePiece() includes the uncached check.
+     */
+    @Benchmark
+    public void checkConditions() {
+        try {
+            board.checkConditions();
+        } catch (Board.CheckmateException e) {
+        } catch (Board.StalemateException e) {
+        }
+    }
+
+    /**
+     * A full copy of the board.
+     */
+    @Benchmark
+    public Object cloneBoard() {
+        return board.clone();
+    }
+}
@@ -0,0 +1,45 @@
+package iseechess;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for drawing the board. ChessPanel paints into an offscreen image, so no window is needed and the
+ * benchmark runs headless.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChessPanelBenchmark {
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private ChessPanel chessPanel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        chessPanel = new ChessPanel(new Board(BenchmarkPositions.fen(position)));
+        chessPanel.setSize(chessPanel.getPreferredSize());
+        image = new BufferedImage(chessPanel.getWidth(), chessPanel.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        chessPanel.paintComponent(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,337 @@
+package iseechess;
+
+/**
+ * Static helpers for working with bitboards, i.e. 64-bit longs in which every bit stands for one square of the board.
+ *
+ * Squares are numbered from 0 to 63 as y * 8 + x, using the same (x, y) Board coordinates as the Board class,
+ * so bit 0 is the bottom left square (white's queen side rook) and bit 63 is the top right square.
+ */
+public final class Bitboards {
+    /**
+     * The Piece enum's values, cached so that a bitboard index (the piece's ordinal) can be turned back into a Piece
+     * without allocating a new array every time.
+     */
+    static final Piece[] PIECES = Piece.values();
+
+    private Bitboards() {}
+
+    /**
+     * Convert a pair of Board coordinates into a square number.
+     * @param x the x-location of the square.
+     * @param y the y-location of the square.
+     * @return the square number, from 0 to 63.
+     */
+    static int square(int x, int y) {
+        return (y << 3) | x;
+    }
+
+    /**
+     * Convert a location array of length 2 into a square number.
+     * @param location an array of length 2 holding the x and y coordinates of the square.
+     * @return the square number, from 0 to 63.
+     */
+    static int square(int[] location) {
+        return square(location[0], location[1]);
+    }
+
+    /**
+     * Get the x-location (column) of a square.
+     * @param square the square number.
+     * @return the x-location of the square.
+     */
+    static int x(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Get the y-location (row) of a square.
+     * @param square the square number.
+     * @return the y-location of the square.
+     */
+    static int y(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Get a bitboard with only the given square set.
+     * @param square the square number.
+     * @return the bitboard of that single square.
+     */
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * The squares attacked by pawns, knights and kings, indexed by Piece.ordinal() and then by square.
+     * Rows for sliding pieces are left empty. Built once when the class is loaded.
+     */
+    private static final long[][] DIRECT_ATTACKS = new long[12][64];
+
+    static {
+        for (Piece piece : PIECES) {
+            if (!piece.isDirectPiece()) {
+                continue;
+            }
+            //pawns only attack with their first 2 moves (the diagonals) and the king's last 2 moves are castling
+            int[][] offsets = piece.getPossibleMoves();
+            int attackingMoves = (piece == Piece.WhitePawn || piece == Piece.BlackPawn) ? 2 : 8;
+            for (int square = 0; square < 64; square++) {
+                for (int k = 0; k < attackingMoves; k++) {
+                    int x = x(square) + offsets[k][0], y = y(square) + offsets[k][1];
+                    if (x >= 0 && x < 8 && y >= 0 && y < 8) {
+                        DIRECT_ATTACKS[piece.ordinal()][square] |= bit(square(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Look up the squares attacked by a pawn, knight or king on the given square. Castling and pawn pushes are not included.
+     * @param piece the piece, which must be a pawn, knight or king.
+     * @param square the square the piece is on.
+     * @return a bitboard of the attacked squares.
+     */
+    static long directAttacks(Piece piece, int square) {
+        return DIRECT_ATTACKS[piece.ordinal()][square];
+    }
+
+    /**
+     * Find the squares a pawn on the given square attacks, i.e. the squares it could capture on.
+     * @param white true if the pawn is white, false if it is black.
+     * @param square the square the pawn is on.
+     * @return a bitboard of the attacked squares.
+     */
+    static long pawnAttacks(boolean white, int square) {
+        return DIRECT_ATTACKS[white ? Piece.WhitePawn.ordinal() : Piece.BlackPawn.ordinal()][square];
+    }
+
+    /**
+     * Find the squares a knight on the given square attacks.
+     * @param square the square the knight is on.
+     * @return a bitboard of the attacked squares.
+     */
+    static long knightAttacks(int square) {
+        return DIRECT_ATTACKS[Piece.WhiteKnight.ordinal()][square];
+    }
+
+    /**
+     * Find the squares a king on the given square attacks. Castling is not included.
+     * @param square the square the king is on.
+     * @return a bitboard of the attacked squares.
+     */
+    static long kingAttacks(int square) {
+        return DIRECT_ATTACKS[Piece.WhiteKing.ordinal()][square];
+    }
+
+    /**
+     * The directions a rook and a bishop slide in, as (x, y) steps.
+     */
+    private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, -1}, {-1, 1}};
+
+    /**
+     * Magic bitboard tables for sliding pieces, indexed by square.
+     * For each square, the mask holds the squares whose occupancy can block the piece (board edges are left out since
+     * a piece on the edge blocks nothing). Multiplying the masked occupancy by the magic number and shifting gathers
+     * those bits into a dense index into the attack table for that square.
+     *
+     * The magic numbers were found with a random search over sparse 64-bit numbers. Searching at startup took seconds,
+     * so they are kept here and only checked while the tables are filled in.
+     */
+    private static final long[] ROOK_MASKS = new long[64], BISHOP_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = {
+            0x428000805022C000L, 0x10C0200010004000L, 0x0100082004401100L, 0x1280180050000480L,
+            0x7480122800040080L, 0x0500010008020400L, 0x0180010004800600L, 0x0100010000402082L,
+            0x8002002102004084L, 0x0120400020005004L, 0x0006001240208200L, 0x0060808010000800L,
+            0x2001001008000500L, 0x0062004804820010L, 0x0002000104080200L, 0x0001000080521100L,
+            0x0020208008400881L, 0x0410084008402008L, 0x8401010040200010L, 0x0010004008040040L,
+            0xC004008004080080L, 0x3040808002000401L, 0xC000840002080130L, 0x0985120020840041L,
+            0x1000802080004004L, 0x4000820200410020L, 0x8840110100402001L, 0x4180100100082102L,
+            0x2420050100100801L, 0x0002000200100408L, 0x083E023400300108L, 0x2010009200004124L,
+            0x4440C00025800080L, 0x0020201000404000L, 0x0800100088802000L, 0x0000080080801001L,
+            0x0012050011000800L, 0x0000800200800400L, 0x0805000441008200L, 0x2098310042000084L,
+            0x0080022000424004L, 0x0040003008002003L, 0x0020100020008080L, 0x0890100008008080L,
+            0x0006080004008080L, 0x1407000400030008L, 0x0186004001004080L, 0x0100008041020004L,
+            0x0080208010400080L, 0x4200802010400C80L, 0x0104102841820200L, 0x81200A0020104200L,
+            0x1404710008000500L, 0x2020800400020080L, 0x1808010850420400L, 0x82E00C0050810200L,
+            0x4804804012042102L, 0x8000400121D50081L, 0x1004120020800842L, 0x40C410B820424202L,
+            0x000A001020080402L, 0x0421000802040001L, 0x00008306B0080214L, 0x01901C0041218502L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x20C1810809004082L, 0x24200D1425848200L, 0xA089140402904028L, 0x4088260040002150L,
+            0x3C01114010000001L, 0x4002011088820120L, 0x8008808820104808L, 0x1331040222010440L,
+            0x1000101110028494L, 0x00001841680A8300L, 0x0160840404044144L, 0x0201441042021004L,
+            0x2040011140100010L, 0x0000008820080080L, 0x0060060230050418L, 0x0400042C04240400L,
+            0x0020904002A40120L, 0x04020008080800A0L, 0x0404004040408100L, 0x00A0400401002080L,
+            0x0204000201210004L, 0x2240880202101208L, 0x40510C8A88411018L, 0x0002098481859818L,
+            0x1820081005080880L, 0x80022008D0041082L, 0x8038081804002020L, 0x2802080004004008L,
+            0x104084022A802004L, 0x1801020441080102L, 0x0008009052020100L, 0x00441100004100A0L,
+            0x0802601080204288L, 0x0008021150080100L, 0x0301445000080820L, 0x1008020082880080L,
+            0x0008100400204102L, 0x00A0008100008040L, 0x0428080500205141L, 0x0008122020844102L,
+            0x0004100805088A00L, 0x0804010150484823L, 0x20C1420040402402L, 0x002A604010430200L,
+            0x3004408101000211L, 0x0C04040044101A02L, 0x0120024200400A18L, 0x0001240400840044L,
+            0x1080680410880012L, 0x020041141D201102L, 0x9042008404C80480L, 0x408004406A080100L,
+            0x24300011220A06A4L, 0x8080790850042800L, 0x00411405840D0220L, 0x0C60212220810702L,
+            0x008182808090400AL, 0x0000004844246004L, 0x0000102110411020L, 0x0220850000420208L,
+            0x0100040410221201L, 0x8012506124704080L, 0x0640083044880040L, 0x0002220802208200L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64], BISHOP_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][], BISHOP_TABLE = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASKS[square] = blockerMask(square, ROOK_DIRECTIONS);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            ROOK_TABLE[square] = new long[1 << Long.bitCount(ROOK_MASKS[square])];
+            fillTable(square, ROOK_DIRECTIONS, ROOK_MASKS[square], ROOK_MAGICS[square], ROOK_SHIFTS[square], ROOK_TABLE[square]);
+            BISHOP_MASKS[square] = blockerMask(square, BISHOP_DIRECTIONS);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            BISHOP_TABLE[square] = new long[1 << Long.bitCount(BISHOP_MASKS[square])];
+            fillTable(square, BISHOP_DIRECTIONS, BISHOP_MASKS[square], BISHOP_MAGICS[square], BISHOP_SHIFTS[square], BISHOP_TABLE[square]);
+        }
+    }
+
+    /**
+     * Find the squares a rook on the given square attacks. Each ray stops at (and includes) the first occupied square.
+     * @param square the square the rook is on.
+     * @param occupied a bitboard of every occupied square on the board.
+     * @return a bitboard of the attacked squares.
+     */
+    static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Find the squares a bishop on the given square attacks. Each ray stops at (and includes) the first occupied square.
+     * @param square the square the bishop is on.
+     * @param occupied a bitboard of every occupied square on the board.
+     * @return a bitboard of the attacked squares.
+     */
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[square][(int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Find the squares a queen on the given square attacks.
+     * @param square the square the queen is on.
+     * @param occupied a bitboard of every occupied square on the board.
+     * @return a bitboard of the attacked squares.
+     */
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * For every pair of squares on a common row, column or diagonal: the squares strictly between them, and the whole
+     * line through both of them from edge to edge. Both are empty for squares that don't share a line.
+     */
+    private static final long[][] BETWEEN = new long[64][64], LINE = new long[64][64];
+
+    static {
+        int[][][] allDirections = {ROOK_DIRECTIONS, BISHOP_DIRECTIONS};
+        for (int from = 0; from < 64; from++) {
+            for (int[][] directions : allDirections) {
+                for (int[] direction : directions) {
+                    long line = ray(from, 0, direction[0], direction[1]) | ray(from, 0, -direction[0], -direction[1]) | bit(from);
+                    long remaining = ray(from, 0, direction[0], direction[1]);
+                    while (remaining != 0) {
+                        int to = Long.numberOfTrailingZeros(remaining);
+                        remaining &= remaining - 1;
+                        BETWEEN[from][to] = ray(from, bit(to), direction[0], direction[1]) & ~bit(to);
+                        LINE[from][to] = line;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the squares strictly between two squares on a common row, column or diagonal.
+     * @param from one square.
+     * @param to the other square.
+     * @return a bitboard of the squares between them, empty if they are next to each other or not on a line.
+     */
+    static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Find the whole row, column or diagonal through two squares, e.g. the squares a pinned piece may still move to.
+     * @param from one square.
+     * @param to the other square.
+     * @return a bitboard of the line from edge to edge, including both squares, or empty if they are not on a line.
+     */
+    static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Find the squares whose occupancy matters to a sliding piece, i.e. every square it can slide over except the last
+     * one on each ray.
+     * @param square the square the piece is on.
+     * @param directions the directions the piece slides in.
+     * @return a bitboard of the blocking squares.
+     */
+    private static long blockerMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            long ray = ray(square, 0, direction[0], direction[1]);
+            int last = direction[0] + direction[1] * 8 > 0 ? 63 - Long.numberOfLeadingZeros(ray) : Long.numberOfTrailingZeros(ray);
+            mask |= ray & ~bit(last);//an empty ray (piece already on that edge) adds nothing
+        }
+        return mask;
+    }
+
+    /**
+     * Fill in the attack table of one square for every possible occupancy of its blocker mask. Only called while the
+     * class is loaded.
+     * @param square the square the piece is on.
+     * @param directions the directions the piece slides in.
+     * @param mask the blocker mask of the square.
+     * @param magic the magic number of the square.
+     * @param shift the shift that turns the product into an index, 64 minus the number of bits in the mask.
+     * @param table the attack table of the square.
+     */
+    private static void fillTable(int square, int[][] directions, long mask, long magic, int shift, long[] table) {
+        boolean[] filled = new boolean[table.length];
+        long subset = 0;
+        do {//walks every subset of the mask
+            long attacks = 0;
+            for (int[] direction : directions) {
+                attacks |= ray(square, subset, direction[0], direction[1]);
+            }
+            int index = (int) ((subset * magic) >>> shift);
+            if (filled[index] && table[index] != attacks) {
+                throw new InternalError(); //a bad magic number, should never happen
+            }
+            filled[index] = true;
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+    }
+
+    /**
+     * Walk a single ray from a square in one direction until the edge of the board or an occupied square.
+     * Only used to build the magic tables.
+     * @param square the square the ray starts from (not included).
+     * @param occupied a bitboard of every occupied square on the board.
+     * @param dx the x step of the direction, -1, 0 or 1.
+     * @param dy the y step of the direction, -1, 0 or 1.
+     * @return a bitboard of the squares on the ray.
+     */
+    private static long ray(int square, long occupied, int dx, int dy) {
+        long attacks = 0;
+        int x = x(square) + dx, y = y(square) + dy;
+        while (x >= 0 && x < 8 && y >= 0 && y < 8) {
+            long b = bit(square(x, y));
+            attacks |= b;
+            if ((occupied & b) != 0) {
+                break;
+            }
+            x += dx;
+            y += dy;
+        }
+        return attacks;
+    }
+}
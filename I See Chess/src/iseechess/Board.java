@@ -0,0 +1,1388 @@
+package iseechess;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class holds information about everything in the current state of the game.
+ * The position on the board, whose turn it is, what positions have already occurred, and the like.
+ *
+ * All chess game logic occurs through the Board class and its member methods.
+ * In order to move a piece, movePiece() should be called and its exceptions checked.
+ * ChessExceptions should be checked and handled as necessary.
+ * Following a movePiece() call, checkConditions() must also be called in order to update
+ * the boards check and stalemate flags.
+ *
+ * The Board's coordinate system is in (x, y), where x indicates the horizontal location of the square,
+ * starting from the left. y indicates the vertical location of the square, starting from the bottom, i.e. the white side.
+ * Note that this is different from the coordinate system of ChessPanel.
+ *
+ * Internally the position is kept as bitboards: one 64-bit long per type and colour of piece, indexed by Piece.ordinal(),
+ * plus occupancy masks for each colour and for the whole board (see the Bitboards class for the square numbering).
+ * Move generation and attack detection work on these. The Piece[][] array returned by getBoard() is kept in step
+ * with them for the panels, and so are the sets of squares each colour attacks, so that safe() and isInCheck()
+ * are a single lookup.
+ *
+ * Every position also has a Zobrist key (see the Zobrist class), which is updated as pieces move and is used both
+ * for hashCode() and to count repeated positions. In the same way the material and piece-square score is updated as
+ * pieces move, so getScore() doesn't have to look at the pieces at all.
+ *
+ * Searches and other code that tries out moves should use makeMove() and unmakeMove() rather than cloning the board.
+ */
+public class Board implements Cloneable {
+    private Piece[][] board;
+    private long[] pieces = new long[12];
+    private long[] colours = new long[2];
+    private long occupied;
+    private long[] attackedBy = new long[2]; //squares attacked by white (0) and black (1), recomputed whenever the position changes
+    //set by findPinsAndChecks() for the colour whose moves are being generated: enemy pieces giving check, own pieces pinned to the king, squares a non-king move must land on, squares the king can't step onto
+    private long checkers, pinned, evasions, kingDanger;
+    private long legalMoveKnownFor; //Zobrist key of the position hasLegalMove() last answered for
+    private boolean legalMoveKnown, legalMoveCached;
+    private RepetitionTable repetitions = new RepetitionTable(); //how many times each position has occurred, by Zobrist key
+    private long zobristKey, pawnKey; //pawnKey only covers the pawns, see getPawnKey()
+    private int middlegameScore, endgameScore, phase; //the PieceSquareTables terms of every piece on the board, kept up to date by putPiece() and removePiece()
+    private boolean isWhitesTurn, whiteCheck, blackCheck, whiteStalemate, blackStalemate, fiftyMoves, threeBoards, stalemate, whiteMate, blackMate;
+    private boolean[][] castlingFlags = {{true, true}, {true, true}};
+    private int enPassant = -1; //square the player to move can capture onto en passant, or -1. Only set when an enemy pawn is actually beside the pawn that moved two squares
+    private int turn = 0, whitePawnLocation, blackPawnLocation, halfmoveClock = 0; //halfmoveClock counts moves since the last pawn move or capture
+    //one entry per move that can be taken back with unmakeMove(): the packed move and captured piece, the packed castling flags, en passant square and halfmove clock, the Zobrist key and both attack maps from before the move
+    private int[] undoMoves = new int[64], undoStates = new int[64];
+    private long[] undoKeys = new long[64], undoAttacks = new long[128];
+    private int undoCount = 0;
+    private MoveList scratchMoves = new MoveList(); //reused by movePiece() and checkConditions() so they allocate nothing
+    private int[] exchangeGains = new int[32]; //reused by staticExchange(), one entry per capture in the exchange
+    private static final int KING_EXCHANGE_VALUE = 20000; //more than everything else together, so the king is only ever the last to capture
+    private static final String FEN_PIECES = "PpNnBbRrQqKk"; //FEN letter of each piece, indexed by ordinal
+
+    /**
+     * This is the default constructor for the Board class. This sets the values of the board, by putting pieces in their proper default locations.
+     */
+    public Board() {
+        board = new Piece[][] {{Piece.WhiteRook, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackRook},
+                {Piece.WhiteKnight, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackKnight},
+                {Piece.WhiteBishop, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackBishop},
+                {Piece.WhiteQueen, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackQueen},
+                {Piece.WhiteKing, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackKing},
+                {Piece.WhiteBishop, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackBishop},
+                {Piece.WhiteKnight, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackKnight},
+                {Piece.WhiteRook, Piece.WhitePawn, null, null, null, null, Piece.BlackPawn, Piece.BlackRook}};
+        isWhitesTurn = true;
+        whiteCheck = false;
+        blackCheck = false;
+        whiteStalemate = false;
+        blackStalemate = false;
+        fiftyMoves = false;
+        threeBoards = false;
+        stalemate = false;
+        whiteMate = false;
+        blackMate = false;
+        setUpBitboards();
+    }
+
+    /**
+     * Additional constructor for the Board. It accepts a board and sets the board of the class to the accepted board.
+     * @param currentBoard The accepted board that the board of this class will be set to.
+     */
+    Board(Piece[][] currentBoard) {
+        this();
+        board = currentBoard;
+        setUpBitboards();
+    }
+
+    /**
+     * Additional constructor for the Board. It sets up the position described by a FEN string, the standard one-line
+     * description of a chess position, e.g. "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".
+     * The halfmove clock and move number may be left out.
+     * @param fen The FEN string.
+     * @throws InvalidParameterException If the string is not a valid FEN position.
+     */
+    public Board(String fen) {
+        this(new Piece[8][8]);
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (fields.length < 4 || rows.length != 8) {
+            throw new InvalidParameterException(fen);
+        }
+        for (int row = 0; row < 8; row++) {
+            int x = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    x += c - '0';
+                } else if (x < 8 && FEN_PIECES.indexOf(c) >= 0) {
+                    board[x++][7 - row] = Bitboards.PIECES[FEN_PIECES.indexOf(c)];
+                } else {
+                    throw new InvalidParameterException(fen);
+                }
+            }
+        }
+        isWhitesTurn = fields[1].equals("w");
+        castlingFlags = new boolean[][] {{fields[2].indexOf('K') >= 0, fields[2].indexOf('Q') >= 0},
+                {fields[2].indexOf('k') >= 0, fields[2].indexOf('q') >= 0}};
+        setUpBitboards();
+        for (int c = 0; c < 2; c++) {//flags only stay up if the king and rook are where castling needs them
+            if (board[4][c * 7] != (c == 0 ? Piece.WhiteKing : Piece.BlackKing)) {
+                castlingFlags[c][0] = false;
+                castlingFlags[c][1] = false;
+            }
+            for (int side = 0; side < 2; side++) {
+                if (board[side == 0 ? 7 : 0][c * 7] != (c == 0 ? Piece.WhiteRook : Piece.BlackRook)) {
+                    castlingFlags[c][side] = false;
+                }
+            }
+        }
+        if (!fields[3].equals("-")) {
+            int square = Bitboards.square(fields[3].charAt(0) - 'a', fields[3].charAt(1) - '1');
+            //like movePiece(), only keep the square if a pawn of the player to move can actually capture onto it
+            if ((Bitboards.pawnAttacks(!isWhitesTurn, square) & pieces[isWhitesTurn ? Piece.WhitePawn.ordinal() : Piece.BlackPawn.ordinal()]) != 0) {
+                enPassant = square;
+            }
+        }
+        if (fields.length >= 6) {
+            halfmoveClock = Integer.parseInt(fields[4]);
+            turn = (Integer.parseInt(fields[5]) - 1) * 2 + (isWhitesTurn ? 0 : 1);
+        }
+        zobristKey = computeZobristKey();
+        repetitions = new RepetitionTable();
+        repetitions.add(zobristKey);
+    }
+
+    /**
+     * Describe the current position as a FEN string. See Board(String).
+     * @return The FEN string.
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int y = 7; y >= 0; y--) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                if (board[x][y] == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(FEN_PIECES.charAt(board[x][y].ordinal()));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            fen.append(y > 0 ? "/" : " ");
+        }
+        fen.append(isWhitesTurn ? "w " : "b ");
+        String castling = (castlingFlags[0][0] ? "K" : "") + (castlingFlags[0][1] ? "Q" : "") +
+                (castlingFlags[1][0] ? "k" : "") + (castlingFlags[1][1] ? "q" : "");
+        fen.append(castling.isEmpty() ? "-" : castling);
+        fen.append(' ').append(enPassant >= 0 ? Move.squareName(enPassant) : "-");
+        fen.append(' ').append(halfmoveClock).append(' ').append(turn / 2 + 1);
+        return fen.toString();
+    }
+
+    /**
+     * Rebuild every bitboard and occupancy mask from the Piece[][] array.
+     */
+    private void setUpBitboards() {
+        Arrays.fill(pieces, 0);
+        Arrays.fill(colours, 0);
+        occupied = 0;
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        pawnKey = 0;
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                if (board[i][j] != null) {
+                    putPiece(board[i][j], Bitboards.square(i, j));
+                }
+            }
+        }
+        updateAttacks();
+        zobristKey = computeZobristKey();
+        repetitions = new RepetitionTable();
+        repetitions.add(zobristKey);
+    }
+
+    /**
+     * Compute the Zobrist key of the position from scratch. Moves keep the key up to date without calling this.
+     * @return The Zobrist key.
+     */
+    long computeZobristKey() {
+        long key = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            long remaining = pieces[i];
+            while (remaining != 0) {
+                key ^= Zobrist.PIECE_SQUARE[i][Long.numberOfTrailingZeros(remaining)];
+                remaining &= remaining - 1;
+            }
+        }
+        if (!isWhitesTurn) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        for (int c = 0; c < 2; c++) {
+            for (int side = 0; side < 2; side++) {
+                if (castlingFlags[c][side]) {
+                    key ^= Zobrist.CASTLING[c][side];
+                }
+            }
+        }
+        if (enPassant >= 0) {
+            key ^= Zobrist.EN_PASSANT[Bitboards.x(enPassant)];
+        }
+        return key;
+    }
+
+    /**
+     * Recompute the squares each colour attacks. This is called once the pieces have been moved, whenever the position
+     * changes. Rebuilding both sets is only a table lookup per piece, and unlike patching them it stays correct when a
+     * move opens or closes a line for some other sliding piece.
+     */
+    private void updateAttacks() {
+        for (int c = 0; c < 2; c++) {
+            long attacks = 0;
+            long remaining = colours[c];
+            while (remaining != 0) {
+                int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                attacks |= attacksFrom(board[Bitboards.x(square)][Bitboards.y(square)], square);
+            }
+            attackedBy[c] = attacks;
+        }
+    }
+
+    /**
+     * Find the squares a piece attacks from a square on the current board.
+     * @param piece The piece.
+     * @param square The square it is on.
+     * @return A bitboard of the attacked squares.
+     */
+    private long attacksFrom(Piece piece, int square) {
+        switch (piece) {
+            case WhiteBishop:
+            case BlackBishop:
+                return Bitboards.bishopAttacks(square, occupied);
+            case WhiteRook:
+            case BlackRook:
+                return Bitboards.rookAttacks(square, occupied);
+            case WhiteQueen:
+            case BlackQueen:
+                return Bitboards.queenAttacks(square, occupied);
+            default:
+                return Bitboards.directAttacks(piece, square);
+        }
+    }
+
+    /**
+     * Place a piece on an empty square, updating both the bitboards and the Piece[][] array.
+     * @param piece The piece to place.
+     * @param square The square to place it on.
+     */
+    private void putPiece(Piece piece, int square) {
+        long bit = Bitboards.bit(square);
+        pieces[piece.ordinal()] |= bit;
+        colours[piece.isWhite() ? 0 : 1] |= bit;
+        occupied |= bit;
+        board[Bitboards.x(square)][Bitboards.y(square)] = piece;
+        zobristKey ^= Zobrist.PIECE_SQUARE[piece.ordinal()][square];
+        if (piece == Piece.WhitePawn || piece == Piece.BlackPawn) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece.ordinal()][square];
+        }
+        middlegameScore += PieceSquareTables.MIDDLEGAME[piece.ordinal()][square];
+        endgameScore += PieceSquareTables.ENDGAME[piece.ordinal()][square];
+        phase += PieceSquareTables.PHASE_WEIGHTS[piece.ordinal()];
+    }
+
+    /**
+     * Remove whatever piece is on a square, updating both the bitboards and the Piece[][] array.
+     * @param square The square to empty.
+     */
+    private void removePiece(int square) {
+        Piece piece = board[Bitboards.x(square)][Bitboards.y(square)];
+        if (piece == null) {
+            return;
+        }
+        long mask = ~Bitboards.bit(square);
+        pieces[piece.ordinal()] &= mask;
+        colours[piece.isWhite() ? 0 : 1] &= mask;
+        occupied &= mask;
+        board[Bitboards.x(square)][Bitboards.y(square)] = null;
+        zobristKey ^= Zobrist.PIECE_SQUARE[piece.ordinal()][square];
+        if (piece == Piece.WhitePawn || piece == Piece.BlackPawn) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece.ordinal()][square];
+        }
+        middlegameScore -= PieceSquareTables.MIDDLEGAME[piece.ordinal()][square];
+        endgameScore -= PieceSquareTables.ENDGAME[piece.ordinal()][square];
+        phase -= PieceSquareTables.PHASE_WEIGHTS[piece.ordinal()];
+    }
+
+    /**
+     * Take down a castling flag, updating the Zobrist key if it was still up.
+     * @param c The colour index, 0 for white and 1 for black.
+     * @param side 0 for castling right and 1 for castling left.
+     */
+    private void clearCastlingFlag(int c, int side) {
+        if (castlingFlags[c][side]) {
+            castlingFlags[c][side] = false;
+            zobristKey ^= Zobrist.CASTLING[c][side];
+        }
+    }
+
+    /**
+     * Set the en passant square, updating the Zobrist key.
+     * @param square The square that can be captured onto en passant, or -1 for none.
+     */
+    private void setEnPassant(int square) {
+        if (enPassant >= 0) {
+            zobristKey ^= Zobrist.EN_PASSANT[Bitboards.x(enPassant)];
+        }
+        enPassant = square;
+        if (enPassant >= 0) {
+            zobristKey ^= Zobrist.EN_PASSANT[Bitboards.x(enPassant)];
+        }
+    }
+
+    /**
+     * This method accepts a piece and its location. It will then proceed to analyze the board and determine which squares the piece can move onto. Then return an ArrayList of valid locations relative to the piece. This method is run every time the user tries to move a piece.
+     * @param piece This is the type of piece that is being moved.
+     * @param location This is an array of length 2 representing the X and Y coordinates of the piece the user is trying to move.
+     * @return Returns an ArrayList of arrays of length 2. These array are the X and Y differences between the piece we are moving and the possible target square. These coordinates are all relative to the piece we are moving.
+     */
+    ArrayList<Integer[]> allValidMoves(Piece piece, int[] location) {
+        if (board[location[0]][location[1]] != piece || (piece == null)) {
+            throw new InvalidParameterException();
+        }
+        ArrayList<Integer[]> validMoves = new ArrayList<Integer[]>();
+        MoveList moves = new MoveList();
+        findPinsAndChecks(piece.isWhite());
+        addMovesFrom(Bitboards.square(location), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            Piece promotion = Move.promotion(move);
+            if (promotion == null || promotion == Piece.WhiteQueen || promotion == Piece.BlackQueen) {//one entry per target square
+                validMoves.add(new Integer[] {Bitboards.x(Move.to(move)) - location[0], Bitboards.y(Move.to(move)) - location[1]});
+            }
+        }
+        return validMoves;
+    }
+
+    /**
+     * Generate every legal move of the player whose turn it is, as packed moves (see the Move class).
+     * Nothing is allocated, so this is what searches and other hot paths should use instead of allValidMoves().
+     * @param moves The list to add the moves to. It is not cleared first.
+     */
+    public void generateMoves(MoveList moves) {
+        findPinsAndChecks(isWhitesTurn);
+        long remaining = colours[isWhitesTurn ? 0 : 1];
+        while (remaining != 0) {
+            addMovesFrom(Long.numberOfTrailingZeros(remaining), moves);
+            remaining &= remaining - 1;
+        }
+    }
+
+    /**
+     * Find everything that limits the moves of one colour, once per position rather than once per move: the enemy
+     * pieces giving check, the pieces pinned to the king, the squares a piece other than the king must move to in
+     * order to capture or block a checking piece, and the squares the king must not step onto.
+     * @param colour The colour whose moves are about to be generated. True is white and false is black.
+     */
+    private void findPinsAndChecks(boolean colour) {
+        int c = colour ? 0 : 1, e = 1 - c;
+        int king = kingSquare(colour);
+        long enemies = colours[e];
+        long rookMovers = pieces[Piece.WhiteRook.ordinal() + e] | pieces[Piece.WhiteQueen.ordinal() + e];
+        long bishopMovers = pieces[Piece.WhiteBishop.ordinal() + e] | pieces[Piece.WhiteQueen.ordinal() + e];
+        checkers = (Bitboards.pawnAttacks(colour, king) & pieces[Piece.WhitePawn.ordinal() + e]) |
+                (Bitboards.knightAttacks(king) & pieces[Piece.WhiteKnight.ordinal() + e]);
+        pinned = 0;
+        kingDanger = attackedBy[e];
+        //sliding pieces that would attack the king if none of our own pieces were in the way
+        long snipers = (Bitboards.rookAttacks(king, enemies) & rookMovers) | (Bitboards.bishopAttacks(king, enemies) & bishopMovers);
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (blockers == 0) {
+                checkers |= Bitboards.bit(sniper);
+                //the king can't escape by stepping back along the line, which the attack map misses since the king itself blocks it
+                kingDanger |= Bitboards.line(king, sniper) & ~Bitboards.bit(sniper);
+            } else if ((blockers & (blockers - 1)) == 0) {//exactly one piece in the way
+                pinned |= blockers & colours[c];
+            }
+        }
+        if (checkers == 0) {
+            evasions = ~0L;
+        } else if ((checkers & (checkers - 1)) == 0) {
+            evasions = checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers));
+        } else {
+            evasions = 0;//double check, only the king can move
+        }
+    }
+
+    /**
+     * Check whether the player to move has at least one legal move, stopping at the first one found. The king is tried
+     * first, and in check only moves onto the checking line can count, so this is usually much quicker than
+     * generating every move. The answer is remembered until the position changes, so calling this again, e.g. from
+     * evaluateConditions() and then from a search, costs nothing.
+     * @return true if the player to move can move, false if they are checkmated or stalemated.
+     */
+    public boolean hasLegalMove() {
+        if (legalMoveKnown && legalMoveKnownFor == zobristKey) {
+            return legalMoveCached;
+        }
+        legalMoveKnown = true;
+        legalMoveKnownFor = zobristKey;
+        legalMoveCached = findLegalMove();
+        return legalMoveCached;
+    }
+
+    /**
+     * Look for a legal move of the player to move, for hasLegalMove().
+     * @return true if there is one.
+     */
+    private boolean findLegalMove() {
+        findPinsAndChecks(isWhitesTurn);
+        int king = kingSquare(isWhitesTurn);
+        if (legalTargets(king) != 0) {
+            return true;
+        }
+        if (evasions == 0) {//in double check and the king can't move
+            return false;
+        }
+        long remaining = colours[isWhitesTurn ? 0 : 1] & ~Bitboards.bit(king) & ~pinned;
+        while (remaining != 0) {
+            if (legalTargets(Long.numberOfTrailingZeros(remaining)) != 0) {
+                return true;
+            }
+            remaining &= remaining - 1;
+        }
+        remaining = pinned;//pinned pieces last, they rarely have moves and never when in check
+        while (checkers == 0 && remaining != 0) {
+            if (legalTargets(Long.numberOfTrailingZeros(remaining)) != 0) {
+                return true;
+            }
+            remaining &= remaining - 1;
+        }
+        return false;
+    }
+
+    /**
+     * Find the squares the piece on a square can legally move to.
+     * Moves are filtered with the masks from findPinsAndChecks(), which must have been called for the piece's colour
+     * in the current position. Only en passant captures, which take a piece off a different square, are checked one by one.
+     * @param from The square of the piece. It may be of either colour, but only the player to move can capture en passant.
+     * @return A bitboard of the target squares.
+     */
+    private long legalTargets(int from) {
+        Piece piece = board[Bitboards.x(from)][Bitboards.y(from)];
+        long targets = pseudoLegalTargets(piece, from);
+        if (piece == Piece.WhiteKing || piece == Piece.BlackKing) {
+            return targets & ~kingDanger;
+        }
+        long allowed = evasions;
+        if ((pinned & Bitboards.bit(from)) != 0) {
+            allowed &= Bitboards.line(kingSquare(piece.isWhite()), from);
+        }
+        boolean isPawn = piece == Piece.WhitePawn || piece == Piece.BlackPawn;
+        long enPassantTarget = isPawn && enPassant >= 0 ? targets & Bitboards.bit(enPassant) & ~occupied : 0;
+        targets &= allowed & ~enPassantTarget;
+        if (enPassantTarget != 0 && isLegal(piece, from, enPassant)) {
+            targets |= enPassantTarget;
+        }
+        return targets;
+    }
+
+    /**
+     * Add the legal moves of the piece on a square to a list, as packed moves. A pawn reaching the last row gives
+     * four moves, one for each piece it can be promoted to.
+     * findPinsAndChecks() must have been called for the piece's colour in the current position, see legalTargets().
+     * @param from The square of the piece. It may be of either colour, but only the player to move can capture en passant.
+     * @param moves The list to add the moves to.
+     */
+    private void addMovesFrom(int from, MoveList moves) {
+        Piece piece = board[Bitboards.x(from)][Bitboards.y(from)];
+        boolean colour = piece.isWhite();
+        boolean isPawn = piece == Piece.WhitePawn || piece == Piece.BlackPawn;
+        boolean isKing = piece == Piece.WhiteKing || piece == Piece.BlackKing;
+        long enemies = colours[colour ? 1 : 0];
+        long targets = legalTargets(from);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;//clears the lowest bit, the square we just took
+            int flags = (enemies & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+            if (isPawn) {
+                if (to == enPassant && Bitboards.x(from) != Bitboards.x(to)) {
+                    flags |= Move.CAPTURE | Move.EN_PASSANT;
+                } else if (Math.abs(to - from) == 16) {
+                    flags |= Move.DOUBLE_PUSH;
+                } else if (Bitboards.y(to) == (colour ? 7 : 0)) {
+                    int c = colour ? 0 : 1;
+                    moves.add(Move.encode(from, to, flags | Move.PROMOTION, Bitboards.PIECES[Piece.WhiteQueen.ordinal() + c]));
+                    moves.add(Move.encode(from, to, flags | Move.PROMOTION, Bitboards.PIECES[Piece.WhiteRook.ordinal() + c]));
+                    moves.add(Move.encode(from, to, flags | Move.PROMOTION, Bitboards.PIECES[Piece.WhiteBishop.ordinal() + c]));
+                    moves.add(Move.encode(from, to, flags | Move.PROMOTION, Bitboards.PIECES[Piece.WhiteKnight.ordinal() + c]));
+                    continue;
+                }
+            } else if (isKing && Math.abs(to - from) == 2) {
+                flags |= Move.CASTLING;
+            }
+            moves.add(Move.encode(from, to, flags, null));
+        }
+    }
+
+    /**
+     * Find every square a piece could move to if we did not care about leaving its own king in check.
+     * @param piece The type of piece that is being moved.
+     * @param from The square the piece is on.
+     * @return A bitboard of the target squares.
+     */
+    private long pseudoLegalTargets(Piece piece, int from) {
+        boolean colour = piece.isWhite();
+        long notOwn = ~colours[colour ? 0 : 1];
+        switch (piece) {
+            case WhitePawn:
+            case BlackPawn:
+                return pawnTargets(colour, from);
+            case WhiteKnight:
+            case BlackKnight:
+                return Bitboards.knightAttacks(from) & notOwn;
+            case WhiteBishop:
+            case BlackBishop:
+                return Bitboards.bishopAttacks(from, occupied) & notOwn;
+            case WhiteRook:
+            case BlackRook:
+                return Bitboards.rookAttacks(from, occupied) & notOwn;
+            case WhiteQueen:
+            case BlackQueen:
+                return Bitboards.queenAttacks(from, occupied) & notOwn;
+            case WhiteKing:
+            case BlackKing:
+                return (Bitboards.kingAttacks(from) & notOwn) | castlingTargets(colour, from);
+        }
+        return 0;
+    }
+
+    /**
+     * Find the squares a pawn can move to: one or two squares ahead if they are empty, and diagonally forward if there
+     * is an enemy piece or an en passant capture there.
+     * @param colour The colour of the pawn. True is white and false is black.
+     * @param from The square the pawn is on.
+     * @return A bitboard of the target squares.
+     */
+    private long pawnTargets(boolean colour, int from) {
+        long captures = colours[colour ? 1 : 0];
+        if (enPassant >= 0 && colour == isWhitesTurn) {//only the player to move can capture en passant
+            captures |= Bitboards.bit(enPassant);
+        }
+        long targets = Bitboards.pawnAttacks(colour, from) & captures;
+        int forward = colour ? 8 : -8, oneAhead = from + forward;
+        if (oneAhead >= 0 && oneAhead < 64 && (occupied & Bitboards.bit(oneAhead)) == 0) {//checks 1 square ahead is empty
+            targets |= Bitboards.bit(oneAhead);
+            if (Bitboards.y(from) == (colour ? 1 : 6) && (occupied & Bitboards.bit(oneAhead + forward)) == 0) {//checks 2 squares ahead is empty
+                targets |= Bitboards.bit(oneAhead + forward);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Find the squares a king can castle to. All conditions for castling: the king and rook haven't moved yet (flags),
+     * the squares between them are empty, and the king is not moving out of, into, or through check.
+     * @param colour The colour of the king. True is white and false is black.
+     * @param from The square the king is on.
+     * @return A bitboard of the squares the king lands on when castling.
+     */
+    private long castlingTargets(boolean colour, int from) {
+        int c = colour ? 0 : 1;
+        long rooks = pieces[Piece.WhiteRook.ordinal() + c];
+        if (from != (colour ? 4 : 60) || !safe(from, colour)) {
+            return 0;
+        }
+        long targets = 0;
+        if (castlingFlags[c][0] && (rooks & Bitboards.bit(from + 3)) != 0 &&//right
+                (occupied & (Bitboards.bit(from + 1) | Bitboards.bit(from + 2))) == 0 &&
+                safe(from + 1, colour) && safe(from + 2, colour)) {
+            targets |= Bitboards.bit(from + 2);
+        }
+        if (castlingFlags[c][1] && (rooks & Bitboards.bit(from - 4)) != 0 &&//left
+                (occupied & (Bitboards.bit(from - 1) | Bitboards.bit(from - 2) | Bitboards.bit(from - 3))) == 0 &&
+                safe(from - 1, colour) && safe(from - 2, colour)) {
+            targets |= Bitboards.bit(from - 2);
+        }
+        return targets;
+    }
+
+    /**
+     * Check whether a move leaves the mover's own king safe. The move is simulated on copies of the occupancy masks,
+     * so the board itself is never touched. Move generation only needs this for en passant captures, which the masks
+     * from findPinsAndChecks() can't cover since two pieces leave the line they are on.
+     * @param piece The type of piece that is being moved.
+     * @param from The square the piece is moving from.
+     * @param to The square the piece is moving to.
+     * @return true if the king of the moving side is not attacked after the move.
+     */
+    private boolean isLegal(Piece piece, int from, int to) {
+        boolean colour = piece.isWhite();
+        long captured = colours[colour ? 1 : 0] & Bitboards.bit(to);
+        if ((piece == Piece.WhitePawn || piece == Piece.BlackPawn) && to == enPassant && Bitboards.x(from) != Bitboards.x(to)) {
+            captured = Bitboards.bit(to - (colour ? 8 : -8));//the pawn being taken en passant is behind the target square
+        }
+        long occupiedAfter = (occupied & ~Bitboards.bit(from) & ~captured) | Bitboards.bit(to);
+        int king = (piece == Piece.WhiteKing || piece == Piece.BlackKing) ? to : kingSquare(colour);
+        return !attacked(king, !colour, occupiedAfter, captured);
+    }
+
+    /**
+     * Check whether any piece of one colour attacks a square.
+     * @param square The square to check.
+     * @param byWhite The colour of the attackers. True is white and false is black.
+     * @param occupiedSquares The occupancy to use for sliding pieces, which lets callers test positions after a move.
+     * @param captured A bitboard of attacking pieces to ignore because they have been captured.
+     * @return true if the square is attacked.
+     */
+    private boolean attacked(int square, boolean byWhite, long occupiedSquares, long captured) {
+        int c = byWhite ? 0 : 1;//white pieces have even ordinals and each black piece comes right after its white one
+        long alive = ~captured;
+        long queens = pieces[Piece.WhiteQueen.ordinal() + c];
+        return (Bitboards.pawnAttacks(!byWhite, square) & pieces[Piece.WhitePawn.ordinal() + c] & alive) != 0 ||
+                (Bitboards.knightAttacks(square) & pieces[Piece.WhiteKnight.ordinal() + c] & alive) != 0 ||
+                (Bitboards.kingAttacks(square) & pieces[Piece.WhiteKing.ordinal() + c]) != 0 ||
+                (Bitboards.bishopAttacks(square, occupiedSquares) & (pieces[Piece.WhiteBishop.ordinal() + c] | queens) & alive) != 0 ||
+                (Bitboards.rookAttacks(square, occupiedSquares) & (pieces[Piece.WhiteRook.ordinal() + c] | queens) & alive) != 0;
+    }
+
+    /**
+     * Get every piece, of both colours, that attacks a square.
+     * @param square The square.
+     * @param occupiedSquares The occupancy to use for sliding pieces, so that pieces can be taken off the board.
+     * @return A bitboard of the attackers, which may include pieces no longer in occupiedSquares.
+     */
+    private long attackersTo(int square, long occupiedSquares) {
+        long bishops = pieces[Piece.WhiteBishop.ordinal()] | pieces[Piece.BlackBishop.ordinal()];
+        long rooks = pieces[Piece.WhiteRook.ordinal()] | pieces[Piece.BlackRook.ordinal()];
+        long queens = pieces[Piece.WhiteQueen.ordinal()] | pieces[Piece.BlackQueen.ordinal()];
+        return (Bitboards.pawnAttacks(false, square) & pieces[Piece.WhitePawn.ordinal()]) |
+                (Bitboards.pawnAttacks(true, square) & pieces[Piece.BlackPawn.ordinal()]) |
+                (Bitboards.knightAttacks(square) & (pieces[Piece.WhiteKnight.ordinal()] | pieces[Piece.BlackKnight.ordinal()])) |
+                (Bitboards.kingAttacks(square) & (pieces[Piece.WhiteKing.ordinal()] | pieces[Piece.BlackKing.ordinal()])) |
+                (Bitboards.bishopAttacks(square, occupiedSquares) & (bishops | queens)) |
+                (Bitboards.rookAttacks(square, occupiedSquares) & (rooks | queens));
+    }
+
+    /**
+     * Work out how much material a move wins or loses once both sides have made every capture they want to on its
+     * target square (static exchange evaluation). Each side recaptures with its least valuable piece and stops when
+     * going on would lose more, and pieces lined up behind a slider, e.g. two rooks on a file, join in as the ones in
+     * front of them leave. No moves are made or generated and pins are ignored, so this is cheap enough to call for
+     * every capture in a search, or from the user interface to warn about a piece left hanging.
+     * A move to an empty square works too: it scores 0 if the piece is safe there and less if it can be won.
+     * A king moving onto a defended square scores about -20000, as if it were lost, since the move is illegal.
+     * @param from The square of the piece that moves. It must not be empty.
+     * @param to The square it moves to.
+     * @return The material won in centipawns, as Piece.getValue() counts it, from the point of view of the side that
+     *         moves. Negative if the move loses material.
+     */
+    public int staticExchange(int from, int to) {
+        Piece moving = getPiece(from);
+        Piece victim = getPiece(to);
+        boolean isPawn = moving == Piece.WhitePawn || moving == Piece.BlackPawn;
+        long occupiedSquares = occupied & ~Bitboards.bit(from);
+        int[] gain = exchangeGains;
+        gain[0] = victim == null ? 0 : victim.getValue();
+        int onSquare = moving == Piece.WhiteKing || moving == Piece.BlackKing ? KING_EXCHANGE_VALUE : moving.getValue();
+        if (isPawn && victim == null && to == enPassant && Bitboards.x(from) != Bitboards.x(to)) {
+            gain[0] = Piece.WhitePawn.getValue();
+            occupiedSquares &= ~Bitboards.bit(to - (moving.isWhite() ? 8 : -8));
+        }
+        if (isPawn && (Bitboards.y(to) == 0 || Bitboards.y(to) == 7)) {//the pawn arrives as a queen
+            gain[0] += Piece.WhiteQueen.getValue() - Piece.WhitePawn.getValue();
+            onSquare = Piece.WhiteQueen.getValue();
+        }
+        long attackers = attackersTo(to, occupiedSquares) & occupiedSquares;
+        long diagonal = pieces[Piece.WhiteBishop.ordinal()] | pieces[Piece.BlackBishop.ordinal()] |
+                pieces[Piece.WhiteQueen.ordinal()] | pieces[Piece.BlackQueen.ordinal()];
+        long straight = pieces[Piece.WhiteRook.ordinal()] | pieces[Piece.BlackRook.ordinal()] |
+                pieces[Piece.WhiteQueen.ordinal()] | pieces[Piece.BlackQueen.ordinal()];
+        int c = moving.isWhite() ? 1 : 0, depth = 0;//c is the colour to capture next, the opponent first
+        while (true) {
+            long own = attackers & colours[c];
+            if (own == 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];//what this side has if the exchange ends with this capture
+            if (onSquare == KING_EXCHANGE_VALUE) {
+                break;//the king can't be taken, so it only ever captures last
+            }
+            int type = 0;
+            while ((own & pieces[type * 2 + c]) == 0) {
+                type++;
+            }
+            int square = Long.numberOfTrailingZeros(own & pieces[type * 2 + c]);
+            occupiedSquares &= ~Bitboards.bit(square);
+            attackers = (attackers | (Bitboards.bishopAttacks(to, occupiedSquares) & diagonal) |
+                    (Bitboards.rookAttacks(to, occupiedSquares) & straight)) & occupiedSquares;
+            onSquare = type == 5 ? KING_EXCHANGE_VALUE : Bitboards.PIECES[type * 2].getValue();
+            c ^= 1;
+        }
+        for (; depth > 0; depth--) {//from the last capture back, each side picks the better of capturing and stopping
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * This method analyzes the board to see if any endgame conditions have occurred. It checks for check, mate, and stalemate. This method is run after every move.
+     * It throws the results of evaluateConditions() as exceptions.
+     */
+    void checkConditions() throws StalemateException, CheckmateException {
+        MoveResult result = evaluateConditions();
+        if (result == MoveResult.STALEMATE) {
+            throw new StalemateException();
+        }
+        if (result == MoveResult.CHECKMATE) {
+            throw new CheckmateException(whiteMate);
+        }
+    }
+
+    /**
+     * Analyze the board for check, mate and stalemate like checkConditions(), but report the outcome instead of throwing it.
+     * Only the player to move can be mated or stalemated, so only their moves are looked at, see hasLegalMove().
+     * @return CHECKMATE, STALEMATE, CHECK if the player to move is in check, or NORMAL.
+     */
+    public MoveResult evaluateConditions() {
+        if (isInCheck(true)) {
+            whiteCheck = true;
+        }
+        if (isInCheck(false)) {
+            blackCheck = true;
+        }
+        boolean cannotMove = !hasLegalMove();
+        whiteStalemate = isWhitesTurn && cannotMove;
+        blackStalemate = !isWhitesTurn && cannotMove;
+        whiteMate = whiteStalemate && isInCheck(true);
+        blackMate = blackStalemate && isInCheck(false);
+        if (halfmoveClock >= 100) {//50 moves by each player without a pawn move or a capture
+            fiftyMoves = true;
+        }
+        if (repetitions.count(zobristKey) >= 3) {
+            threeBoards = true;
+        }
+        if (whiteStalemate || blackStalemate || fiftyMoves || threeBoards) {
+            stalemate = true;
+        }
+        if (stalemate && !whiteMate && !blackMate) {
+            return MoveResult.STALEMATE;
+        }
+        if (whiteMate || blackMate) {
+            return MoveResult.CHECKMATE;
+        }
+        return isInCheck(isWhitesTurn) ? MoveResult.CHECK : MoveResult.NORMAL;
+    }
+
+    /**
+     * Method to perform pawn promotion. The method also validates the promotion and will throw exceptions
+     * as necessary if the promotion does not validate.
+     * @param prevLocation The current location of the pawn to be promoted.
+     * @param newPiece The Piece to promote the pawn into.
+     * @throws IllegalMoveException If the pawn being promoted does not exist or otherwise should not be promoted.
+     * @throws IsNotYourTurnException If the pawn being promoted is the wrong colour or is being promoted into the wrong colour.
+     */
+    public void promotePawn(int[] prevLocation, Piece newPiece) throws IllegalMoveException, IsNotYourTurnException {
+        /*
+        PSA: Remember that at this point, the turn is listed as the next player's turn
+         */
+        Piece pieceAt = board[prevLocation[0]][prevLocation[1]];
+        if (pieceAt == null || pieceAt.isWhite() != !getIsWhitesTurn()) {
+            throw new IsNotYourTurnException();
+        }
+        if ((pieceAt != Piece.BlackPawn && pieceAt != Piece.WhitePawn) || prevLocation[0] != getPawnLocation(!getIsWhitesTurn()) || prevLocation[1] != (!getIsWhitesTurn()? 7 : 0)) {
+            throw new IllegalMoveException();
+        }
+        if (newPiece.isWhite() != pieceAt.isWhite()) {
+            throw new IllegalMoveException();
+        }
+        if (newPiece == Piece.BlackBishop || newPiece == Piece.BlackKnight || newPiece == Piece.BlackQueen || newPiece == Piece.BlackRook ||
+                newPiece == Piece.WhiteBishop || newPiece == Piece.WhiteKnight || newPiece == Piece.WhiteQueen || newPiece == Piece.WhiteRook) {
+            repetitions.remove(zobristKey);
+            removePiece(Bitboards.square(prevLocation));
+            putPiece(newPiece, Bitboards.square(prevLocation));
+            updateAttacks();
+            repetitions.add(zobristKey);
+        } else {
+            throw new IllegalMoveException();
+        }
+    }
+
+    @Override
+    /**
+     * Clone the object and everything within it. The copy can be searched or played on by another thread without
+     * affecting this board.
+     */
+    public Board clone() {
+        Board toReturn;
+        try {
+            toReturn = (Board) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(); // shouldn't happen
+        }
+        toReturn.board = board.clone();
+        for (int i = 0; i < 8; i++) {
+            toReturn.board[i] = board[i].clone();
+        }
+        toReturn.pieces = pieces.clone();
+        toReturn.colours = colours.clone();
+        toReturn.attackedBy = attackedBy.clone();
+        toReturn.castlingFlags = new boolean[][] {castlingFlags[0].clone(), castlingFlags[1].clone()};
+        toReturn.repetitions = repetitions.clone();
+        toReturn.undoMoves = undoMoves.clone();
+        toReturn.undoStates = undoStates.clone();
+        toReturn.undoKeys = undoKeys.clone();
+        toReturn.undoAttacks = undoAttacks.clone();
+        toReturn.scratchMoves = new MoveList();
+        toReturn.exchangeGains = new int[32];
+        return toReturn;
+    }
+
+    @Override
+    /**
+     * Check equality between two Board objects.
+     * Two boards are equal when they are the same position as far as repetition goes: the pieces are in the same
+     * locations, the same player is to move, and the castling flags and en passant square are the same.
+     * History, such as the turn number and the halfmove clock, is disregarded.
+     * @param other The other Board object
+     * @return true if the objects are equal.
+     */
+    public boolean equals(Object other) {
+        if (!(other instanceof Board)) {
+            return false;
+        }
+        Board that = (Board) other;
+        return zobristKey == that.zobristKey && isWhitesTurn == that.isWhitesTurn && enPassant == that.enPassant &&
+                Arrays.equals(pieces, that.pieces) && Arrays.deepEquals(castlingFlags, that.castlingFlags);
+    }
+
+    @Override
+    /**
+     * Get a hash code for the Board, taken from its Zobrist key. Equal boards always have equal keys.
+     * @return The hash code.
+     */
+    public int hashCode() {
+        return (int) (zobristKey ^ (zobristKey >>> 32));
+    }
+
+    /**
+     * Get the Zobrist key of the current position.
+     * @return The 64-bit Zobrist key.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Check whether a player still has the right to castle on one side, i.e. neither the king nor that rook has moved.
+     * Whether castling is possible right now also depends on the squares in between, see allValidMoves().
+     * @param colour The colour of the player. True is white and false is black.
+     * @param kingside true for castling with the rook on the h column, false for the one on the a column.
+     * @return true if the right is still there.
+     */
+    public boolean canCastle(boolean colour, boolean kingside) {
+        return castlingFlags[colour ? 0 : 1][kingside ? 0 : 1];
+    }
+
+    /**
+     * Get the square the player to move can capture onto en passant. It is only set when a pawn of the player to move
+     * stands beside the pawn that moved two squares, so a double pawn move that can't be captured leaves no square.
+     * @return The square number (see Bitboards), or -1 if there is none.
+     */
+    public int getEnPassantSquare() {
+        return enPassant;
+    }
+
+    /**
+     * Get a Zobrist key of the pawns alone: the XOR of the same numbers the full key uses, but only for the pawns.
+     * Pawns only change on pawn moves and captures of pawns, so many positions share one pawn structure, and anything
+     * that depends only on the pawns can be cached under this key. A board with no pawns has the key 0.
+     * @return The pawn key.
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Get the number of times the current position has occurred in the game so far, counting this time.
+     * A search can treat a position that has occurred before as a draw.
+     * @return The number of occurrences, at least 1.
+     */
+    public int getRepetitionCount() {
+        return repetitions.count(zobristKey);
+    }
+
+    /**
+     * Get the material and piece-square score of the position, see PieceSquareTables. It is kept up to date as moves
+     * are made and unmade, so this takes constant time.
+     * @return The score in centipawns from white's point of view, positive if white is better.
+     */
+    public int getScore() {
+        return PieceSquareTables.blend(middlegameScore, endgameScore, phase);
+    }
+
+    /**
+     * Get the game phase, which falls from 24 with every piece on the board towards 0 as pieces are traded.
+     * Knights and bishops count 1, rooks 2 and queens 4. It can be above 24 after a promotion.
+     * @return The phase.
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Count the pieces of one type and colour on the board.
+     * @param piece The type and colour of piece.
+     * @return The number of them.
+     */
+    public int getPieceCount(Piece piece) {
+        return Long.bitCount(pieces[piece.ordinal()]);
+    }
+
+    /**
+     * Get the bitboard of one type of piece: bit n is set if the piece is on square n, where a1 is 0, b1 is 1 and h8 is 63.
+     * @param piece The type and colour of piece.
+     * @return The bitboard.
+     */
+    public long getBitboard(Piece piece) {
+        return pieces[piece.ordinal()];
+    }
+
+    /**
+     * Get the bitboard of every piece on the board, of either colour.
+     * @return The bitboard, numbered like getBitboard().
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * Get the piece on a square.
+     * @param square The square number, where a1 is 0, b1 is 1 and h8 is 63.
+     * @return The piece, or null if the square is empty.
+     */
+    public Piece getPiece(int square) {
+        return board[Bitboards.x(square)][Bitboards.y(square)];
+    }
+
+    /**
+     * Get the number of moves made since the last pawn move or capture, which is used for the fifty-move rule.
+     * @return The halfmove clock.
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Returns an array of length 2 with the coordinates of the king given my the parameter.
+     * @param colour Boolean for which king you want to find. True is white, false is black.
+     * @return Returns the location of the king, which is read off the king's bitboard.
+     */
+    int[] findKing(boolean colour) {
+        int square = kingSquare(colour);
+        return new int[] {Bitboards.x(square), Bitboards.y(square)};
+    }
+
+    /**
+     * Find the square of the king of the given colour.
+     * @param colour Boolean for which king you want to find. True is white, false is black.
+     * @return The square number of the king.
+     */
+    private int kingSquare(boolean colour) {
+        return Long.numberOfTrailingZeros(pieces[colour ? Piece.WhiteKing.ordinal() : Piece.BlackKing.ordinal()]);
+    }
+
+    /**
+     * Getter that returns the board as a 2-Dimensional array of pieces.
+     * @return Returns the board.
+     */
+    public Piece[][] getBoard() {
+        return board;
+    }
+
+    /**
+     * This is a necessary method for the column in which a promoting pawn is located. The parameter determines the colour of the variable you want.
+     * @param colour True is white and false is black.
+     * @return Returns the appropriate variable saved in this class.
+     */
+    public int getPawnLocation(boolean colour) {
+        return (colour ? whitePawnLocation : blackPawnLocation);
+    }
+
+
+    /**
+     * This method is run after the move has been selected. It will undergo the procedure of actually moving the piece. It accepts the coordinates of the location from and to where the piece is moving. It returns the type of piece that is being moved so that the panel can draw it correctly. This method also is responsible for raising and lowering flags responsible for en passant and castling.
+     * @param location An array of length 2, representing the coordinates of where the piece was, prior to being moved.
+     * @param destination An array of length 2, representing where the piece will end up, after being moved.
+     * @return Returns the type of piece that was being moved.
+     * @throws IsNotYourTurnException This is an exception used for testing. It will never actually occur in a game. It occurs when the variable keeping track of who's turn it is will state that it is not the turn of the player to whom belongs the piece located on the square from which the piece is being moved.
+     * @throws IllegalMoveException This is an exception used for testing. It will never actually occur in a game. It occurs when one tries to move a piece to a location that the piece is not allowed to move to.
+     */
+    Piece movePiece(int[] location, int[] destination) throws ChessException {
+        switch (tryMove(location, destination)) {
+            case NOT_YOUR_TURN:
+                throw new IsNotYourTurnException();
+            case ILLEGAL:
+                throw new IllegalMoveException();
+            case PROMOTION_PENDING:
+                throw new NeedToPromotePawnException(!isWhitesTurn);
+            case CHECKMATE:
+                throw new CheckmateException(whiteMate);
+            case STALEMATE:
+                throw new StalemateException();
+        }
+        return lastCaptured();
+    }
+
+    /**
+     * Move a piece like movePiece() does, validating the move and checking for the end of the game, but report the
+     * outcome as a MoveResult instead of throwing a ChessException. This is the method to use when playing many games
+     * automatically, since outcomes such as check or mate happen all the time and are not errors.
+     * @param location An array of length 2, representing the coordinates of where the piece was, prior to being moved.
+     * @param destination An array of length 2, representing where the piece will end up, after being moved.
+     * @return The outcome of the move. If it is ILLEGAL or NOT_YOUR_TURN, the board has not changed.
+     */
+    public MoveResult tryMove(int[] location, int[] destination) {
+        Piece capturerer = board[location[0]][location[1]];
+        if (capturerer == null) {
+            return MoveResult.ILLEGAL;
+        }
+        boolean wasAValidMove = false, colour = capturerer.isWhite();
+        if (colour != getIsWhitesTurn()) {
+            return MoveResult.NOT_YOUR_TURN;
+        }
+
+        scratchMoves.clear();
+        findPinsAndChecks(colour);
+        addMovesFrom(Bitboards.square(location), scratchMoves);
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            if (Move.to(scratchMoves.get(i)) == Bitboards.square(destination)) {
+                wasAValidMove = true;
+            }
+        }
+        if (!wasAValidMove) {
+            return MoveResult.ILLEGAL;
+        }
+        makeMove(Bitboards.square(location), Bitboards.square(destination), null);
+        if ((capturerer == Piece.WhitePawn || capturerer == Piece.BlackPawn) && destination[1] == (colour ? 7 : 0)) {
+            if (colour) {
+                whitePawnLocation = destination[0];
+            } else {
+                blackPawnLocation = destination[0];
+            }
+            return MoveResult.PROMOTION_PENDING;
+        }
+        return evaluateConditions();
+    }
+
+    /**
+     * Get the piece captured by the last move played, read from the undo records.
+     * @return The captured piece, or null if there was none or no move has been played.
+     */
+    private Piece lastCaptured() {
+        if (undoCount == 0) {
+            return null;
+        }
+        int capturedIndex = (undoMoves[undoCount - 1] >>> 16) & 15;
+        return capturedIndex == 0 ? null : Bitboards.PIECES[capturedIndex - 1];
+    }
+
+    /**
+     * Play a move on the board so that it can later be taken back with unmakeMove(). This is meant for searching
+     * and validating moves: the move is not checked for legality, and no end of game conditions are checked or thrown,
+     * so only moves returned by allValidMoves() should be played. Nothing is copied; only what unmakeMove() needs to
+     * restore (the captured piece, the old castling flags, en passant square and halfmove clock) is recorded.
+     * @param location An array of length 2, representing the coordinates of where the piece is.
+     * @param destination An array of length 2, representing where the piece will end up.
+     * @param promotion The piece a pawn reaching the last row turns into, or null to leave it a pawn (as movePiece()
+     *                  does, until promotePawn() is called).
+     * @return The piece that was captured, or null if there was none.
+     */
+    public Piece makeMove(int[] location, int[] destination, Piece promotion) {
+        return makeMove(Bitboards.square(location), Bitboards.square(destination), promotion);
+    }
+
+    /**
+     * Play a packed move (see the Move class), such as one from generateMoves(), so that it can later be taken back
+     * with unmakeMove(). See makeMove(int[], int[], Piece).
+     * @param move The packed move.
+     * @return The piece that was captured, or null if there was none.
+     */
+    public Piece makeMove(int move) {
+        return makeMove(Move.from(move), Move.to(move), Move.promotion(move));
+    }
+
+    /**
+     * Play a move on the board so that it can later be taken back with unmakeMove(), taking square numbers.
+     * See makeMove(int[], int[], Piece).
+     * @param from The square the piece is moving from.
+     * @param to The square the piece is moving to.
+     * @param promotion The piece a pawn reaching the last row turns into, or null to leave it a pawn.
+     * @return The piece that was captured, or null if there was none.
+     */
+    public Piece makeMove(int from, int to, Piece promotion) {
+        Piece moved = board[Bitboards.x(from)][Bitboards.y(from)];
+        boolean colour = moved.isWhite();
+        boolean isPawn = moved == Piece.WhitePawn || moved == Piece.BlackPawn;
+        int capturedSquare = to;
+        Piece captured = board[Bitboards.x(to)][Bitboards.y(to)];
+        if (captured == null && isPawn && Bitboards.x(from) != Bitboards.x(to)) {//en passant, the captured pawn is beside where we started
+            capturedSquare = to - (colour ? 8 : -8);
+            captured = (colour ? Piece.BlackPawn : Piece.WhitePawn);
+        }
+        pushUndo(from, to, moved, captured, capturedSquare != to);
+
+        if (captured != null) {
+            removePiece(capturedSquare);
+        }
+        removePiece(from);
+        putPiece(promotion != null ? promotion : moved, to);
+        if (isPawn || captured != null) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        isWhitesTurn = !isWhitesTurn;
+        zobristKey ^= Zobrist.BLACK_TO_MOVE;
+        turn++;
+        if (moved == Piece.WhiteKing || moved == Piece.BlackKing) {
+            clearCastlingFlag(colour ? 0 : 1, 0);
+            clearCastlingFlag(colour ? 0 : 1, 1);
+            if (Math.abs(to - from) == 2) {
+                removePiece(to < from ? from - 4 : from + 3);
+                putPiece(colour ? Piece.WhiteRook : Piece.BlackRook, from + (to - from) / 2);
+            }
+        }
+
+        for (int i = 0; i < castlingFlags.length; i++) {
+            for (int j = 0; j < castlingFlags.length; j++) {
+                if (board[i * 7][j * 7] != (j == 0 ? Piece.WhiteRook : Piece.BlackRook)) {
+                    clearCastlingFlag(j, 1 - i);//the rook on the left (i = 0) is the one used for castling left
+                }
+            }
+        }
+        setEnPassant(-1);
+        if (isPawn && Math.abs(to - from) == 16) {
+            int passedOver = (from + to) / 2;
+            if ((Bitboards.pawnAttacks(colour, passedOver) & pieces[colour ? Piece.BlackPawn.ordinal() : Piece.WhitePawn.ordinal()]) != 0) {
+                setEnPassant(passedOver);
+            }
+        }
+        updateAttacks();
+        repetitions.add(zobristKey);
+        return captured;
+    }
+
+    /**
+     * Take back the last move played with makeMove() or movePiece(), including a promotion made with promotePawn().
+     * @throws IllegalStateException If there is no move to take back.
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException();
+        }
+        undoCount--;
+        repetitions.remove(zobristKey);
+        int move = undoMoves[undoCount], state = undoStates[undoCount];
+        int from = move & 63, to = (move >>> 6) & 63;
+        Piece moved = Bitboards.PIECES[(move >>> 12) & 15];
+        int capturedIndex = (move >>> 16) & 15;
+        removePiece(to);
+        putPiece(moved, from);
+        if ((moved == Piece.WhiteKing || moved == Piece.BlackKing) && Math.abs(to - from) == 2) {
+            removePiece(from + (to - from) / 2);
+            putPiece(moved.isWhite() ? Piece.WhiteRook : Piece.BlackRook, to < from ? from - 4 : from + 3);
+        }
+        if (capturedIndex != 0) {
+            boolean wasEnPassant = (move & (1 << 20)) != 0;
+            putPiece(Bitboards.PIECES[capturedIndex - 1], wasEnPassant ? to - (moved.isWhite() ? 8 : -8) : to);
+        }
+        for (int c = 0; c < 2; c++) {
+            castlingFlags[c][0] = (state & (1 << (c * 2))) != 0;
+            castlingFlags[c][1] = (state & (2 << (c * 2))) != 0;
+        }
+        enPassant = ((state >>> 4) & 127) - 1;
+        halfmoveClock = state >>> 11;
+        zobristKey = undoKeys[undoCount];
+        attackedBy[0] = undoAttacks[undoCount * 2];
+        attackedBy[1] = undoAttacks[undoCount * 2 + 1];
+        isWhitesTurn = !isWhitesTurn;
+        turn--;
+    }
+
+    /**
+     * Record what unmakeMove() needs in order to take back a move that is about to be played.
+     * Each move takes one entry in a few primitive arrays, which only grow when a game gets longer than ever before.
+     * @param from The square the piece is moving from.
+     * @param to The square the piece is moving to.
+     * @param moved The piece being moved.
+     * @param captured The piece being captured, or null.
+     * @param enPassantCapture true if the move captures en passant.
+     */
+    private void pushUndo(int from, int to, Piece moved, Piece captured, boolean enPassantCapture) {
+        if (undoCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoCount * 2);
+            undoStates = Arrays.copyOf(undoStates, undoCount * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoCount * 2);
+            undoAttacks = Arrays.copyOf(undoAttacks, undoCount * 4);
+        }
+        undoMoves[undoCount] = from | (to << 6) | (moved.ordinal() << 12) |
+                ((captured == null ? 0 : captured.ordinal() + 1) << 16) | (enPassantCapture ? 1 << 20 : 0);
+        int castling = 0;
+        for (int c = 0; c < 2; c++) {
+            castling |= (castlingFlags[c][0] ? 1 : 0) << (c * 2);
+            castling |= (castlingFlags[c][1] ? 2 : 0) << (c * 2);
+        }
+        undoStates[undoCount] = castling | ((enPassant + 1) << 4) | (halfmoveClock << 11);
+        undoKeys[undoCount] = zobristKey;
+        undoAttacks[undoCount * 2] = attackedBy[0];
+        undoAttacks[undoCount * 2 + 1] = attackedBy[1];
+        undoCount++;
+    }
+
+    /**
+     * This method figures out whether a certain square is safe for a certain colour. Safe means that there is not a single enemy piece that can capture a piece on the square in one move.
+     * @param location An array of length 2 that represents the coordinates of the square that needs to be checked.
+     * @param colour The colour of pieces that the square is or isn't safe for. True is white and false is black.
+     * @return Returns a boolean value that is true if the square was safe for that colour.
+     */
+    boolean safe(int[] location, boolean colour){
+        return safe(Bitboards.square(location), colour);
+    }
+
+    /**
+     * This method figures out whether a certain square is safe for a certain colour, taking the square as a square number.
+     * @param square The square number of the square that needs to be checked.
+     * @param colour The colour of pieces that the square is or isn't safe for. True is white and false is black.
+     * @return Returns a boolean value that is true if the square was safe for that colour.
+     */
+    private boolean safe(int square, boolean colour) {
+        return (attackedBy[colour ? 1 : 0] & Bitboards.bit(square)) == 0;
+    }
+
+    /**
+     * Check whether the king of a colour is in check, i.e. whether the square it stands on is attacked.
+     * @param colour The colour of the king. True is white and false is black.
+     * @return true if that king is in check.
+     */
+    public boolean isInCheck(boolean colour) {
+        return !safe(kingSquare(colour), colour);
+    }
+
+    /**
+     * A getter for the current turn. Every move counts as 1 turn. So in one normal chess turn, where both players have gone once, this variable will have increased by 2.
+     * @return The turn variable.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * A method that returns whether it is currently white's turn.
+     * @return Returns a variable keeping track of this.
+     */
+    public boolean getIsWhitesTurn() {
+        return isWhitesTurn;
+    }
+
+    /**
+     * A ChessException is any chess game-related exception.
+     */
+    public class ChessException extends Throwable {}
+
+    /**
+     * An IsNotYourTurnException is thrown whenever a move is made for the wrong colour, e.g. if it is White's turn
+     * but Black is moved.
+     */
+    public class IsNotYourTurnException extends ChessException {}
+
+    /**
+     * An IllegalMoveException is thrown whenever a move is illegal, for example moving a pawn three squares forward.
+     */
+    public class IllegalMoveException extends ChessException {}
+
+    /**
+     * A NeedToPromotePawnException does not indicate an error, but rather is used to signal the containing
+     * ChessPanel that a promotion needs to occur.
+     */
+    public class NeedToPromotePawnException extends ChessException {
+        private boolean colour;
+
+        /**
+         * Constructor for the NeedToPromotePawnException.
+         * @param colour The colour of the pawn that needs to be promoted.
+         */
+        public NeedToPromotePawnException(boolean colour) {
+            this.colour = colour;
+        }
+
+        @Override
+        /**
+         * Skip filling in the stack trace, since this exception is a normal outcome and not an error.
+         */
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+        /**
+         * Get the colour of the pawn that needs to be promoted.
+         * @return The colour of the pawn to be promoted.
+         */
+        public boolean getColour() {
+            return colour;
+        }
+    }
+
+    /**
+     * A CheckmateException does not indicate an error, but rather is used to signal to the containing ChessPanel
+     * that a checkmate has occurred and needs to be handled.
+     */
+    public class CheckmateException extends ChessException {
+        private boolean colourOfMated;
+
+        /**
+         * Constructor for the CheckmateException. Sets the colour of the <i>mated</i> player.
+         * @param colourOfMated The colour of the mated player.
+         */
+        public CheckmateException(boolean colourOfMated) {
+            this.colourOfMated = colourOfMated;
+        }
+
+        @Override
+        /**
+         * Skip filling in the stack trace, since this exception is a normal outcome and not an error.
+         */
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+        /**
+         * Get the colour of the mated player.
+         * @return The colour of the mated player.
+         */
+        public boolean getColourOfMated() {
+            return colourOfMated;
+        }
+    }
+
+    /**
+     * A Stalemate Exception does not indicate an error, but rather is used to signal the containing ChessPanel
+     * that a stalemate has occurred.
+     */
+    public class StalemateException extends ChessException {
+        @Override
+        /**
+         * Skip filling in the stack trace, since this exception is a normal outcome and not an error.
+         */
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
\ No newline at end of file
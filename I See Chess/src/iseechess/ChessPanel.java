@@ -1,9 +1,18 @@
+package iseechess;
+
+import iseechess.engine.OpeningBook;
+import iseechess.player.GameController;
+import iseechess.player.GameResult;
+import iseechess.player.HumanPlayer;
+import iseechess.player.Player;
+
 import javax.swing.*;
 import javax.swing.event.MouseInputListener;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 /**
  * The ChessPanel, used to display the chess board and all the pieces. Also includes the necessary MouseInputListener.
@@ -17,6 +26,13 @@ import java.util.Arrays;
  * See the Board class documentation for more information.
  *
  * The ChessPanel is also responsible for launching dialog boxes for pawn promotion, checkmate and stalemate.
+ *
+ * The game itself is run by a GameController between two Players, by default two HumanPlayers taking turns at the
+ * mouse; setPlayers() changes them, e.g. to play against the engine. The controller plays the moves on the event
+ * dispatch thread, while computer players think on threads of their own, and clicks on the board are ignored unless a
+ * HumanPlayer is to move.
+ *
+ * If an opening book is set with setOpeningBook(), showHint() highlights the book's favourite move.
  */
 public class ChessPanel extends JPanel implements MouseInputListener {
     private Board board;
@@ -27,6 +43,10 @@ public class ChessPanel extends JPanel implements MouseInputListener {
     private ArrayList<ColoredLocation> colouredLocations= new ArrayList<ColoredLocation>();
     private ColoredLocation mouseLocation = new ColoredLocation(0, 0, null);
     private ArrayList<Integer[]> nextLegalMoves = new ArrayList<Integer[]>();
+    private Player[] players = {new HumanPlayer("White"), new HumanPlayer("Black")};
+    private long computerMillis;
+    private GameController game;
+    private OpeningBook book;
 
     /**
      * Constructor for the ChessPanel. Creates a new ChessPanel object with the given Board.
@@ -39,6 +59,7 @@ public class ChessPanel extends JPanel implements MouseInputListener {
         this.board = board;
         addMouseListener(this);
         addMouseMotionListener(this);
+        startGame();
     }
 
     /**
@@ -209,6 +230,131 @@ public class ChessPanel extends JPanel implements MouseInputListener {
         this.graveyardPanel = graveyardPanel;
     }
 
+    /**
+     * Set who plays each colour, and start a new game between them on the current board. HumanPlayers play with the
+     * mouse and may think as long as they like; any other player is a computer and has a time limit.
+     * @param white the player of the white pieces.
+     * @param black the player of the black pieces.
+     * @param millis how long a computer player may think about each move, in milliseconds.
+     */
+    public void setPlayers(Player white, Player black, long millis) {
+        this.players = new Player[] {white, black};
+        this.computerMillis = millis;
+        startGame();
+    }
+
+    /**
+     * Set the opening book that hints come from. This is optional.
+     * @param book the OpeningBook, or null for none.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Highlight the book move with the highest weight in orange, or say that there is none. A book lookup takes
+     * microseconds, so this runs on the event dispatch thread.
+     */
+    public void showHint() {
+        int move = book != null && humanToMove() != null ? book.getBestMove(board) : Move.NONE;
+        if (move == Move.NONE) {
+            JOptionPane.showMessageDialog(this, "There is no book move in this position.", "Hint",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        selectedPiece = null;
+        nextLegalMoves.clear();
+        colouredLocations.clear();
+        int[] from = convertBoardToPanel(Bitboards.x(Move.from(move)), Bitboards.y(Move.from(move)));
+        int[] to = convertBoardToPanel(Bitboards.x(Move.to(move)), Bitboards.y(Move.to(move)));
+        colouredLocations.add(new ColoredLocation(from[0], from[1], Color.ORANGE));
+        colouredLocations.add(new ColoredLocation(to[0], to[1], Color.ORANGE));
+        repaint();
+    }
+
+    /**
+     * Find the person who is to move, if it is a person's turn.
+     * @return the HumanPlayer waiting for a move, or null if it is a computer's turn or the game is over.
+     */
+    private HumanPlayer humanToMove() {
+        Player toMove = players[board.getIsWhitesTurn() ? 0 : 1];
+        if (toMove instanceof HumanPlayer && ((HumanPlayer) toMove).isToMove()) {
+            return (HumanPlayer) toMove;
+        }
+        return null;
+    }
+
+    /**
+     * Start a new game between the players on the current board, abandoning the game in progress, if any. The game
+     * runs on the event dispatch thread, where everything else that touches the board happens.
+     */
+    private void startGame() {
+        if (game != null) {
+            game.abort();
+        }
+        game = new GameController(board, players[0], players[1], new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                SwingUtilities.invokeLater(command);
+            }
+        });
+        for (int colour = 0; colour < 2; colour++) {
+            game.setMillisPerMove(colour == 0, players[colour] instanceof HumanPlayer ? 0 : computerMillis);
+        }
+        game.addListener(new GameController.Listener() {
+            @Override
+            public void movePlayed(int move, MoveResult result) {
+                if (graveyardPanel != null) {
+                    graveyardPanel.reCount();
+                }
+                repaint();
+            }
+
+            @Override
+            public void gameOver(GameResult result) {
+                colouredLocations.clear();
+                nextLegalMoves.clear();
+                repaint();
+                if (result.getOutcome() == GameResult.Outcome.DRAW) {
+                    stalemateDialog(result);
+                } else {
+                    winnerDialog(result);
+                }
+            }
+        });
+        game.start();
+    }
+
+    /**
+     * Hand the move the person chose to the game, asking which piece to promote to if a pawn reaches the last row.
+     * @param location the Board coordinates of the piece to move.
+     * @param destination the Board coordinates of where it moves to.
+     */
+    private void playMove(int[] location, int[] destination) {
+        HumanPlayer human = humanToMove();
+        if (human == null) {
+            return;
+        }
+        Piece moving = board.getBoard()[location[0]][location[1]];
+        Piece promotion = null;
+        if ((moving == Piece.WhitePawn || moving == Piece.BlackPawn) && destination[1] == (moving.isWhite() ? 7 : 0)) {
+            promotion = pawnPromotionChoose(moving.isWhite());
+            if (promotion == null) {//the dialog was closed
+                return;
+            }
+        }
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == Bitboards.square(location) && Move.to(move) == Bitboards.square(destination) &&
+                    Move.promotion(move) == promotion) {
+                human.play(move);
+                return;
+            }
+        }
+    }
+
     /**
      * Dialog box for handling pawn promotion.
      * @param colour the colour (black or white) of the piece to promote the pawn into.
@@ -268,6 +414,9 @@ public class ChessPanel extends JPanel implements MouseInputListener {
         if (debugPanel != null) {
             debugPanel.updateClickLabel(boardLoc[0],boardLoc[1]);
         }
+        if (humanToMove() == null) {//wait for the computer to move
+            return;
+        }
 
         Piece pieceClicked = board.getBoard()[boardLoc[0]][boardLoc[1]];
 
@@ -286,36 +435,8 @@ public class ChessPanel extends JPanel implements MouseInputListener {
                 !Arrays.equals(boardLoc, selectedLocation)
                 ) {
             System.err.println("Selected location to move to.");
-            try {
-                board.movePiece(selectedLocation, boardLoc);
-            } catch (Board.NeedToPromotePawnException e) {
-                try {
-                    board.promotePawn(boardLoc, pawnPromotionChoose(!board.getIsWhitesTurn()));
-                } catch (Board.ChessException e1) {
-                    e1.printStackTrace();
-                    throw new InternalError(); // should never happen
-                }
-            } catch (Board.CheckmateException e) {
-                colouredLocations.clear();
-                nextLegalMoves.clear();
-                repaint();
-                winnerDialog(e);
-                e.printStackTrace();
-            } catch (Board.StalemateException e) {
-                colouredLocations.clear();
-                nextLegalMoves.clear();
-                repaint();
-                stalemateDialog(e);
-                e.printStackTrace();
-            }
-            catch (Board.ChessException e) { //the other possible exceptions
-                e.printStackTrace();
-                throw new InternalError(); //should never happen
-            }
-            if (graveyardPanel != null) {
-                graveyardPanel.reCount();
-            }
             selectedPiece = null;
+            playMove(selectedLocation, boardLoc);
             colouredLocations.clear();
             nextLegalMoves.clear();
             repaint();
@@ -361,12 +482,14 @@ public class ChessPanel extends JPanel implements MouseInputListener {
     }
 
     /**
-     * Dialog to indicate a stalemate has occurred. Similar to winnerDialog in its options and behaviour.
-     * @param e The StalemateException.
+     * Dialog to indicate a stalemate or other draw has occurred. Similar to winnerDialog in its options and behaviour.
+     * @param result The result of the game.
      */
-    private void stalemateDialog(Board.StalemateException e) {
-        String titleString = "Stalemate!";
-        String dialogString = "A Stalemate has occurred! What would you like to do?";
+    private void stalemateDialog(GameResult result) {
+        String titleString = result.getReason() == GameResult.Reason.STALEMATE ? "Stalemate!" : "Draw!";
+        String dialogString = result.getReason() == GameResult.Reason.STALEMATE ?
+                "A Stalemate has occurred! What would you like to do?" :
+                "The game is drawn by " + result.getReason().getDescription() + "! What would you like to do?";
         String[] options = {"Start a new game", "Quit game"};
         int choice = JOptionPane.showOptionDialog(
                 null,
@@ -395,14 +518,17 @@ public class ChessPanel extends JPanel implements MouseInputListener {
      * Note that currently, closing this dialog box instead of selecting either option causes the program to quit
      * with a -1 exit code.
      * As well, System.exit() is used, since this class cannot "see" the JFrame.
-     * @param e the CheckmateException thrown at the end of the game.
+     * @param result the result of the game.
      */
-    private void winnerDialog(Board.CheckmateException e) {
-        boolean winner = !e.getColourOfMated();
+    private void winnerDialog(GameResult result) {
+        boolean winner = result.getOutcome() == GameResult.Outcome.WHITE_WINS;
         Object[] options = {"Quit",
                     "Start Again"};
         String titleString = (winner?"White" : "Black") + " won!";
-        String dialogString  = "Checkmate by " + (winner?"White": "Black") + "! What would you like to do now?";
+        String dialogString  = result.getReason() == GameResult.Reason.CHECKMATE ?
+                "Checkmate by " + (winner?"White": "Black") + "! What would you like to do now?" :
+                (winner?"White": "Black") + " won by " + result.getReason().getDescription() +
+                        "! What would you like to do now?";
         int n = JOptionPane.showOptionDialog(
                 null,
                 dialogString,
@@ -425,7 +551,8 @@ public class ChessPanel extends JPanel implements MouseInputListener {
     }
 
     /**
-     * Reset the Board object to its initial conditions, and also reset the GraveyardPanel if it exists.
+     * Reset the Board object to its initial conditions, and also reset the GraveyardPanel if it exists. The same
+     * players then play a new game.
      * Used following a Checkmate or a Stalemate and the user wants to restart the game.
      */
     private void resetBoard() {
@@ -433,6 +560,7 @@ public class ChessPanel extends JPanel implements MouseInputListener {
         if (graveyardPanel != null) {
             graveyardPanel.setBoard(board);
         }
+        startGame();
     }
     /**
      * Not Used. Ignore.
@@ -1,3 +1,5 @@
+package iseechess;
+
 import javax.swing.*;
 import java.awt.*;
 
@@ -1,3 +1,5 @@
+package iseechess;
+
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
@@ -46,16 +48,9 @@ public class GraveyardPanel extends JPanel {
     /**
      * Method to be called to "refresh" the GraveyardPanel.
      * It recounts all the pieces on the board and also calls repaint() afterwards.
+     * The Board keeps a bitboard of each type of piece, so counting one type is a single bit count.
      */
     public void reCount() {
-        resetCount();
-        for (Piece[] col: board.getBoard()) {
-            for (Piece piece: col) {
-                if (piece != null) {
-                    theDead.put(piece, theDead.get(piece) + 1);
-                }
-            }
-        }
         for (Piece piece : Piece.values()) {
             int numberShouldExist;
             switch (piece) {
@@ -81,7 +76,7 @@ public class GraveyardPanel extends JPanel {
                     numberShouldExist = 0; //should never happen
                     break;
             }
-            theDead.put(piece, numberShouldExist - theDead.get(piece));
+            theDead.put(piece, numberShouldExist - board.getPieceCount(piece));
         }
         repaint();
     }
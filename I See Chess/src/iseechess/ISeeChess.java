@@ -0,0 +1,171 @@
+package iseechess;
+
+import iseechess.engine.Engine;
+import iseechess.engine.OpeningBook;
+import iseechess.engine.Tablebases;
+import iseechess.player.EnginePlayer;
+import iseechess.player.HumanPlayer;
+import iseechess.player.Player;
+import iseechess.player.Players;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Main class for the I See Chess Project.
+ * Run this class's main() to start the program.
+ */
+public class ISeeChess {
+
+    private static final boolean useGraveyardPanel = true;
+    private static final boolean useDebugPanel = false;
+    private static final long computerThinkingMillis = 3000;
+    private static final String openingBookPath = "book.bin"; //a Polyglot book, used if it exists
+    private static final String tablebasePath = "tablebases"; //made by TablebaseGenerator, used if it exists
+
+    public static void main(String[] args){
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                createAndShowGUI();
+            }
+        });
+    }
+
+    private static void createAndShowGUI() {
+        GraveyardPanel graveyardPanel = null;
+        JFrame frame = new JFrame("I See Chess");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        Board board = new Board();
+        ChessPanel chessPanel = new ChessPanel(board);
+        DebugPanel debugPanel = null;
+        if (useDebugPanel) {
+            debugPanel = new DebugPanel();
+        }
+        if (useGraveyardPanel) {
+            graveyardPanel = new GraveyardPanel(board);
+            chessPanel.setGraveyardPanel(graveyardPanel);
+        }
+        chessPanel.setDebugPanel(debugPanel);
+        mainPanel.add(chessPanel, BorderLayout.PAGE_START);
+        if (useDebugPanel) {
+            mainPanel.add(debugPanel, BorderLayout.CENTER);
+        }
+        final OpeningBook book = openOpeningBook();
+        if (book != null) {
+            chessPanel.setOpeningBook(book);
+            final ChessPanel hintPanel = chessPanel;
+            JButton hintButton = new JButton("Hint");
+            hintButton.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    hintPanel.showHint();
+                }
+            });
+            mainPanel.add(hintButton, BorderLayout.PAGE_END);
+        }
+        frame.add(mainPanel, BorderLayout.LINE_START);
+        if (useGraveyardPanel) {
+            frame.add(graveyardPanel, BorderLayout.LINE_END);
+        }
+        frame.pack();
+        frame.setVisible(true);
+        chooseOpponent(chessPanel, book);
+    }
+
+    /**
+     * Open the opening book, if there is one.
+     * @return the OpeningBook, or null if there is no book or it can't be read.
+     */
+    private static OpeningBook openOpeningBook() {
+        File file = new File(openingBookPath);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return new OpeningBook(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Ask whether to play against a friend or the computer, and with which colour. If there are other computer players
+     * on the class path besides the built-in engine (see the Player interface), also ask which one to play.
+     * @param chessPanel the ChessPanel to set the players on.
+     * @param book the opening book for the computer to play from, or null for none.
+     */
+    private static void chooseOpponent(ChessPanel chessPanel, OpeningBook book) {
+        String[] options = {"Two players", "Play White against the computer", "Play Black against the computer"};
+        int choice = JOptionPane.showOptionDialog(
+                null,
+                "Who would you like to play against?",
+                "I See Chess",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                options,
+                options[0]
+        );
+        if (choice == 1 || choice == 2) {
+            Player computer = chooseComputer(book);
+            Player human = new HumanPlayer(choice == 1 ? "White" : "Black");
+            chessPanel.setPlayers(choice == 1 ? human : computer, choice == 1 ? computer : human, computerThinkingMillis);
+        }
+    }
+
+    /**
+     * Make the computer player, asking which one if there is more than one.
+     * @param book the opening book for the built-in engine to play from, or null for none.
+     * @return the Player.
+     */
+    private static Player chooseComputer(OpeningBook book) {
+        List<String> names = Players.getNames();
+        String name = EnginePlayer.NAME;
+        if (names.size() > 1) {
+            Object chosen = JOptionPane.showInputDialog(
+                    null,
+                    "Which computer would you like to play against?",
+                    "I See Chess",
+                    JOptionPane.QUESTION_MESSAGE,
+                    null,
+                    names.toArray(),
+                    EnginePlayer.NAME
+            );
+            if (chosen != null) {
+                name = (String) chosen;
+            }
+        }
+        if (!name.equals(EnginePlayer.NAME)) {
+            return Players.create(name);
+        }
+        Engine engine = new Engine(Engine.DEFAULT_HASH_MEGABYTES, Runtime.getRuntime().availableProcessors());
+        engine.setOpeningBook(book);
+        engine.setTablebases(openTablebases());
+        return new EnginePlayer(engine);
+    }
+
+    /**
+     * Open the endgame tablebases, if there are any.
+     * @return the Tablebases, or null if there are none or they can't be read.
+     */
+    private static Tablebases openTablebases() {
+        File directory = new File(tablebasePath);
+        if (!directory.isDirectory()) {
+            return null;
+        }
+        try {
+            return new Tablebases(directory);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
\ No newline at end of file
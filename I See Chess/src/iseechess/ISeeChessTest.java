@@ -0,0 +1,1093 @@
+package iseechess;
+
+import iseechess.engine.Engine;
+import iseechess.engine.Evaluator;
+import iseechess.engine.OpeningBook;
+import iseechess.engine.SearchResult;
+import iseechess.engine.TablebaseGenerator;
+import iseechess.engine.Tablebases;
+import iseechess.engine.Uci;
+import iseechess.player.EnginePlayer;
+import iseechess.player.GameController;
+import iseechess.player.GameResult;
+import iseechess.player.MatchStatistics;
+import iseechess.player.Player;
+import iseechess.player.Players;
+import iseechess.player.RandomPlayer;
+import iseechess.player.Tournament;
+import iseechess.server.GameServer;
+import iseechess.server.LoadGenerator;
+import iseechess.server.Protocol;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.junit.Assert.*;
+
+public class ISeeChessTest {
+    Board board;
+
+    @Before
+    /**
+     * Create a fresh board every run.
+     */
+    public void init() {
+        board = new Board();
+    }
+
+    @After
+    /**
+     * Destroy the board after each run.
+     * This keeps tests from interfering with each other.
+     */
+    public void destroy() {
+        board = null;
+    }
+
+    @Test
+    /**
+     * Check that all pawns go where they should.
+     */
+    public void testAllPawns() {
+        for (int i = 0; i < 8; i++) {
+            testPawn(i, 1, Piece.WhitePawn);
+            testPawn(i, 6, Piece.BlackPawn);
+        }
+    }
+
+
+    /**
+     * Check to see that one pawn says it can go where it can go.
+     * @param x the x-location of the pawn in Board coordinates.
+     * @param y the y-location of the pawn in Board coordinates.
+     * @param pieceType the type of the piece to test, either a WhitePawn or a BlackPawn.
+     */
+    public void testPawn(int x, int y, Piece pieceType) {
+        ArrayList<Integer[]> pawnPossibles = board.allValidMoves(pieceType, new int[] {x, y});
+        ArrayList<Integer[]> correct = new ArrayList<Integer[]>();
+        if (pieceType == Piece.WhitePawn) {
+            correct.add(new Integer[] {0,1});
+            correct.add(new Integer[] {0,2});
+        } else {
+            correct.add(new Integer[] {0, -1});
+            correct.add(new Integer[] {0, -2});
+        }
+        assertTrue(correct.size() == pawnPossibles.size());
+        boolean[] correctFlags = new boolean[pawnPossibles.size()];
+        for (int i1 = 0; i1 < correctFlags.length; i1++) {
+            correctFlags[i1] = true;
+        }
+        for (Integer[] pawnLoc : pawnPossibles) {
+            for (int i = 0; i < correct.size(); i++) {
+                if (!correctFlags[i]) {
+                    continue;
+                }
+                Integer[] correctLoc = correct.get(i);
+                if (Arrays.deepEquals(pawnLoc, correctLoc)) {
+                    correctFlags[i] = false;
+                    break;
+                }
+            }
+        }
+        for (boolean flag: correctFlags) {
+            if (flag) {
+                fail("Flags don't work");
+            }
+        }
+    }
+
+    @Test
+    /**
+     * Test that none of the pawns have moved after checking a piece for its movability.
+     */
+    public void testPawnConsistency() {
+        Board second = new Board();
+        //please note that allValidMoves _should not_ modify the board in any way
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                if (j == 2) {
+                    j = 6;
+                }
+                board.allValidMoves(second.getBoard()[i][j], new int[]{i, j});
+                for (int r = 0; r < 8; r++) {
+                    for (int c = 0; c < 8; c++) {
+                        assertEquals(second.getBoard()[r][c], board.getBoard()[r][c]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    /**
+     * Test that white can move on first turn.
+     */
+    public void testWhiteFirstMove() {
+        try {
+            board.movePiece(new int[] {4,1}, new int[] {4,2});
+            assertEquals(board.getBoard()[4][2], Piece.WhitePawn);
+        } catch (Board.ChessException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    /**
+     * Test that black can move on second turn.
+     */
+    public void testBlackSecondMove() {
+        try {
+            board.movePiece(new int[] {4,1}, new int[] {4,2});
+            assertEquals(board.getBoard()[4][2], Piece.WhitePawn);
+            board.movePiece(new int[] {4, 6}, new int[] {4, 4});
+            assertEquals(board.getBoard()[4][4], Piece.BlackPawn);
+            assertNull(board.getBoard()[4][6]);
+        } catch (Board.ChessException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    /**
+     * Test that black can't move into unexpected places.
+     */
+    public void testBlackFail() throws Board.ChessException {
+        try {
+            board.movePiece(new int[] {4,1}, new int[] {4,2});
+            assertEquals(board.getBoard()[4][2], Piece.WhitePawn);
+            board.movePiece(new int[] {4, 6}, new int[] {5, 5});
+            fail();
+        } catch (Board.IllegalMoveException e) {
+        }
+    }
+
+    /**
+     * Test that pieces can be captured as expected.
+     */
+    @Test
+    public void nomTest() {
+        try {
+            board.movePiece(new int[] {4, 1}, new int[] {4, 3});
+            board.movePiece(new int[] {3, 6}, new int[] {3, 4});
+            board.movePiece(new int[] {4, 3}, new int[] {3, 4});
+            assertNull(board.getBoard()[4][3]);
+            assertEquals(board.getBoard()[3][4], Piece.WhitePawn);
+        } catch (Board.ChessException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    /**
+     * Test that black can't move on first turn.
+     */
+    public void testBlackFirstMove() {
+        try {
+            board.movePiece(new int[] {3, 6}, new int[] {3, 5});
+            fail(); // if it gets here it sucks
+        } catch (Board.IsNotYourTurnException e) { // this is what should happen
+            assertNull(board.getBoard()[3][5]); //check that nothing else has changed
+            assertEquals(board.getBoard()[3][6], Piece.BlackPawn);
+            //e.printStackTrace();
+        } catch (Board.ChessException e) {
+            e.printStackTrace();
+            fail(); // not that kind of exception
+        }
+    }
+
+    @Test
+    /**
+     * Test that white can't move to an illegal position on first turn.
+     */
+    public void testWhiteFirstIllegalMove() {
+        try {
+            board.movePiece(new int[] {3, 1}, new int[] {4, 2});
+            fail(); // should not get here
+        } catch (Board.IsNotYourTurnException e) { //should not be this
+            e.printStackTrace();
+            fail();
+        } catch (Board.IllegalMoveException e) { //should be this
+            assertNull(board.getBoard()[4][2]);
+            assertEquals(board.getBoard()[3][1], Piece.WhitePawn);
+        } catch (Board.ChessException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    /**
+     * Test that safe() does not modify the board in any way.
+     */
+    public void testSafe () {
+        Board second = new Board();
+        //please note that safe() _should not_ modify the board in any way
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                board.safe(new int[] {i, j}, true);
+                board.safe(new int[] {i, j}, false);
+                for (int r = 0; r < 8; r++) {
+                    for (int c = 0; c < 8; c++) {
+                        assertEquals(second.getBoard()[r][c], board.getBoard()[r][c]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    /**
+     * Check that the second move a pawn does only has one possibility (one square ahead) instead of two.
+     */
+    public void testSecondPawnMove() throws Board.ChessException {
+        board.movePiece(new int[] {4, 1}, new int[] {4, 2}); // white pawn forward one move
+        board.movePiece(new int[] {5, 6}, new int[] {5, 5}); //black pawn forward one
+        ArrayList<Integer[]> possibleMoves = board.allValidMoves(Piece.WhitePawn, new int[] {4,2});
+        assertEquals(1, possibleMoves.size()); // there should only be one possible move
+        assertTrue(Arrays.equals(possibleMoves.get(0), new Integer[] {0, 1}));
+    }
+
+    @Test
+    /**
+     * Test whether the isIn() function in ChessPanel works as expected.
+     */
+    public void testIsIn() {
+        ArrayList<Integer[]> testAgainst = new ArrayList<Integer[]>();
+        testAgainst.add(new Integer[]{1, 2});
+        testAgainst.add(new Integer[]{2, 3});
+        testAgainst.add(new Integer[] {4, 5});
+        assertTrue(ChessPanel.isIn(testAgainst, new Integer[] {1,2}));
+        assertFalse(ChessPanel.isIn(testAgainst, new Integer[] {1,3}));
+        assertFalse(ChessPanel.isIn(testAgainst, new Integer[] {6,7}));
+    }
+
+    @Test
+    /**
+     * Test whether the board can detect when the white king is in check.
+     */
+    public void testWhiteKingCheck() throws Board.ChessException {
+        board.movePiece(new int[] {5, 1}, new int[] {5, 2});
+        board.movePiece(new int[] {4, 6}, new int[] {4, 5});
+        board.movePiece(new int[] {3, 1}, new int[] {3, 2});
+        board.movePiece(new int[] {3, 7}, new int[] {7, 3});
+        ArrayList<Integer[]> possibleMoves;
+        //king should be able to hide
+        possibleMoves = board.allValidMoves(Piece.WhiteKing, new int[] {4, 0});
+        assertEquals(1, possibleMoves.size());
+        assertArrayEquals(new Integer[] {1,2}, new Integer[] {1,2});
+        assertArrayEquals(new Integer[] {-1, 1}, possibleMoves.get(0));
+        //pawn should be able to block queen
+        possibleMoves = board.allValidMoves(Piece.WhitePawn, new int[] {6, 1});
+        assertEquals(1, possibleMoves.size());
+        assertArrayEquals(new Integer[] {0, 1}, possibleMoves.get(0));
+        //other pawn should not be able to move
+        possibleMoves = board.allValidMoves(Piece.WhitePawn, new int[] {7, 1});
+        assertEquals(0, possibleMoves.size());
+    }
+
+    @Test
+    /**
+     * Test that the attack maps notice a check as soon as the checking move is made.
+     */
+    public void testIsInCheck() throws Board.ChessException {
+        board.movePiece(new int[] {5, 1}, new int[] {5, 2});
+        board.movePiece(new int[] {4, 6}, new int[] {4, 5});
+        assertFalse(board.isInCheck(true));
+        board.movePiece(new int[] {3, 1}, new int[] {3, 2});
+        board.movePiece(new int[] {3, 7}, new int[] {7, 3});
+        assertTrue(board.isInCheck(true));
+        assertFalse(board.isInCheck(false));
+        assertFalse(board.safe(new int[] {5, 1}, true)); //the queen can see the square the pawn left
+    }
+
+    @Test
+    /**
+     * Test whether the board detects that the pawn should be promoted.
+     */
+    public void testPawnPromotion() throws Board.ChessException {
+        board.movePiece(new int[]{4, 1}, new int[]{4, 3});
+        board.movePiece(new int[]{5, 6}, new int[]{5, 4});
+        board.movePiece(new int[]{4, 3}, new int[]{5, 4}); //eat it!
+        board.movePiece(new int[]{4, 6}, new int[]{4, 5});//move the pawn out of the way for the bishop
+        board.movePiece(new int[]{5, 4}, new int[]{5, 5});
+        board.movePiece(new int[]{5, 7}, new int[]{4, 6});
+        board.movePiece(new int[]{5, 5}, new int[]{6, 6});
+        board.movePiece(new int[] {6, 7}, new int[] {7, 5});
+        try {
+            board.movePiece(new int[] {6, 6}, new int[] {6, 7});
+            fail("Should have thrown NeedToPromotePawnException");
+        } catch (Board.NeedToPromotePawnException e) {
+            assertEquals(true, e.getColour());
+            assertEquals(6, board.getPawnLocation(true));
+        }
+        Board[] newBoards = new Board[4];
+        for (int i = 0; i < 4; i++) {
+            newBoards[i] = board.clone();
+        }
+        newBoards[0].promotePawn(new int[] {6, 7}, Piece.WhiteBishop);
+        assertEquals(Piece.WhiteBishop, newBoards[0].getBoard()[6][7]);
+        newBoards[1].promotePawn(new int[] {6, 7}, Piece.WhiteKnight);
+        assertEquals(Piece.WhiteKnight, newBoards[1].getBoard()[6][7]);
+        newBoards[2].promotePawn(new int[] {6, 7}, Piece.WhiteQueen);
+        assertEquals(Piece.WhiteQueen, newBoards[2].getBoard()[6][7]);
+        newBoards[3].promotePawn(new int[] {6, 7}, Piece.WhiteRook);
+        assertEquals(Piece.WhiteRook, newBoards[3].getBoard()[6][7]);
+    }
+
+    @Test
+    /**
+     * Test whether the board detects that the pawn shouldn't be promoted.
+     */
+    public void testPawnPromotionFail() throws Board.ChessException {
+        board.movePiece(new int[]{4, 1}, new int[]{4, 3});
+        board.movePiece(new int[]{5, 6}, new int[]{5, 4});
+        board.movePiece(new int[]{4, 3}, new int[]{5, 4}); //eat it!
+        board.movePiece(new int[]{4, 6}, new int[]{4, 5});//move the pawn out of the way for the bishop
+        board.movePiece(new int[]{5, 4}, new int[]{5, 5});
+        board.movePiece(new int[]{5, 7}, new int[]{4, 6});
+        board.movePiece(new int[]{5, 5}, new int[]{6, 6});
+        board.movePiece(new int[] {6, 7}, new int[] {7, 5});
+    }
+
+    @Test
+    /**
+     * Test whether the clone() method works in Board class.
+     */
+    public void testClone() {
+        Board second = board.clone();
+        assertNotSame(second.getBoard(), board.getBoard()); // they should be equal but not the same object
+    }
+
+    @Test
+    /**
+     * Test that moving the knights out and back gives the starting position's key again,
+     * and that the incrementally updated key matches one computed from scratch.
+     */
+    public void testZobristKey() throws Board.ChessException {
+        Board start = new Board();
+        board.movePiece(new int[] {6, 0}, new int[] {5, 2});
+        assertTrue(start.getZobristKey() != board.getZobristKey());
+        board.movePiece(new int[] {6, 7}, new int[] {5, 5});
+        board.movePiece(new int[] {5, 2}, new int[] {6, 0});
+        board.movePiece(new int[] {5, 5}, new int[] {6, 7});
+        assertEquals(start.getZobristKey(), board.getZobristKey());
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        assertEquals(start, board);
+        assertEquals(start.hashCode(), board.hashCode());
+        assertEquals(4, board.getHalfmoveClock());
+        board.movePiece(new int[] {4, 1}, new int[] {4, 3});
+        assertEquals(0, board.getHalfmoveClock());
+    }
+
+    @Test
+    /**
+     * Test that the repetition table forgets positions that are taken back, without losing the ones that collided
+     * with them.
+     */
+    public void testRepetitionTable() {
+        RepetitionTable table = new RepetitionTable();
+        for (long key = 1; key <= 20; key++) {
+            table.add(key << 32 | key);//all land in slot 0
+        }
+        table.add(5L << 32 | 5);
+        for (long key = 1; key <= 20; key += 2) {
+            table.remove(key << 32 | key);
+        }
+        for (long key = 1; key <= 20; key++) {
+            assertEquals(key % 2 == 0 || key == 5 ? 1 : 0, table.count(key << 32 | key));
+        }
+        for (int i = 0; i < 100000; i++) {//a search's worth of positions, each added and taken back
+            table.add(i * 0x9E3779B97F4A7C15L);
+            table.remove(i * 0x9E3779B97F4A7C15L);
+        }
+        assertEquals(1, table.count(20L << 32 | 20));
+    }
+
+    @Test
+    /**
+     * Test that unmakeMove() takes back captures, castling and promotions exactly.
+     */
+    public void testMakeUnmake() {
+        Board start = new Board();
+        int[][] moves = {{4, 1, 4, 3}, {3, 6, 3, 4}, {4, 3, 3, 4}, {6, 7, 5, 5}, {6, 0, 5, 2}, {5, 5, 3, 4},
+                {5, 0, 4, 1}, {3, 4, 1, 5}, {4, 0, 6, 0}}; //ends with white castling right
+        for (int[] move : moves) {
+            board.makeMove(new int[] {move[0], move[1]}, new int[] {move[2], move[3]}, null);
+        }
+        assertEquals(Piece.WhiteKing, board.getBoard()[6][0]);
+        assertEquals(Piece.WhiteRook, board.getBoard()[5][0]);
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        for (int i = 0; i < moves.length; i++) {
+            board.unmakeMove();
+        }
+        assertEquals(start, board);
+        assertTrue(Arrays.deepEquals(start.getBoard(), board.getBoard()));
+        assertEquals(0, board.getTurn());
+        assertTrue(board.getIsWhitesTurn());
+    }
+
+    @Test
+    /**
+     * Test that the packed move generator agrees with allValidMoves() on the opening position.
+     */
+    public void testGenerateMoves() {
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        assertEquals(20, moves.size());
+        boolean foundKingsPawn = false;
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals("e2e4")) {
+                foundKingsPawn = true;
+                assertTrue(Move.is(moves.get(i), Move.DOUBLE_PUSH));
+            }
+        }
+        assertTrue(foundKingsPawn);
+    }
+
+    @Test
+    /**
+     * Test that tryMove() reports outcomes instead of throwing them, using the fool's mate.
+     */
+    public void testTryMove() {
+        assertEquals(MoveResult.NOT_YOUR_TURN, board.tryMove(new int[] {4, 6}, new int[] {4, 4}));
+        assertEquals(MoveResult.ILLEGAL, board.tryMove(new int[] {5, 1}, new int[] {5, 4}));
+        assertEquals(MoveResult.NORMAL, board.tryMove(new int[] {5, 1}, new int[] {5, 2}));
+        assertEquals(MoveResult.NORMAL, board.tryMove(new int[] {4, 6}, new int[] {4, 4}));
+        assertEquals(MoveResult.NORMAL, board.tryMove(new int[] {6, 1}, new int[] {6, 3}));
+        assertEquals(MoveResult.CHECKMATE, board.tryMove(new int[] {3, 7}, new int[] {7, 3}));
+        assertTrue(board.getIsWhitesTurn()); //the mated player is the one to move
+    }
+
+    @Test
+    /**
+     * Test that a position read from FEN is written back out the same, and that the opening position matches the default board.
+     */
+    public void testFen() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        assertEquals(fen, new Board(fen).toFen());
+        assertEquals(board, new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+
+    @Test
+    /**
+     * Test that hasLegalMove() finds mates and stalemates, and that only the player to move can be stalemated.
+     */
+    public void testHasLegalMove() {
+        assertTrue(board.hasLegalMove());
+        Board mated = new Board("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        assertFalse(mated.hasLegalMove());
+        assertEquals(MoveResult.CHECKMATE, mated.evaluateConditions());
+        Board stalemated = new Board("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertFalse(stalemated.hasLegalMove());
+        assertEquals(MoveResult.STALEMATE, stalemated.evaluateConditions());
+        Board doubleCheck = new Board("4k3/8/5N2/8/8/8/8/4RK2 b - - 0 1");
+        assertTrue(doubleCheck.hasLegalMove());
+        //white has no moves here, but it is black's turn
+        assertEquals(MoveResult.NORMAL, new Board("k7/8/8/8/8/8/5q2/7K b - - 0 1").evaluateConditions());
+    }
+
+    @Test
+    /**
+     * Test the move generator against published perft counts, with and without the table of subtree counts.
+     */
+    public void testPerft() {
+        Perft perft = new Perft(2, 1);
+        assertEquals(197281, perft.count(board, 4));
+        Board kiwipete = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(97862, perft.count(kiwipete, 3));
+        assertEquals(43238, perft.count(new Board("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"), 4));
+        assertEquals(9467, perft.count(new Board("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"), 3));
+        perft.shutdown();
+        perft = new Perft(2, 0);
+        MoveList moves = new MoveList();
+        long[] counts = perft.divide(kiwipete, 2, moves);
+        assertEquals(48, moves.size());
+        long total = 0;
+        for (long nodes : counts) {
+            total += nodes;
+        }
+        assertEquals(2039, total);
+        assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", kiwipete.toFen());
+        perft.shutdown();
+    }
+
+    @Test
+    /**
+     * Test that the engine finds a back rank mate, leaves the board it was given alone, keeps to a node limit, and
+     * heeds a stop() that comes before the search starts.
+     */
+    public void testEngine() {
+        Engine engine = new Engine();
+        Board backRank = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        SearchResult result = engine.search(backRank, 0, 0, 4);
+        assertEquals("a1a8", Move.toString(result.getBestMove()));
+        assertTrue(result.isMate());
+        assertEquals("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1", backRank.toFen());
+        Engine parallel = new Engine(1, 4);
+        result = parallel.search(backRank, 0, 0, 4);
+        assertEquals("a1a8", Move.toString(result.getBestMove()));
+        int stopCount = parallel.getStopCount();
+        parallel.stop();//before the search starts; with no limits it would never end if this were lost
+        assertEquals(1, parallel.search(board, 0, 0, Engine.MAX_DEPTH, stopCount).getDepth());
+        parallel.close();
+        result = engine.search(board, 0, 20000);
+        assertTrue(result.getNodes() < 25000);
+        assertEquals(result.getBestMove(), result.getPrincipalVariation()[0]);
+        assertEquals(MoveResult.NORMAL, board.tryMove(new int[] {Move.from(result.getBestMove()) % 8, Move.from(result.getBestMove()) / 8},
+                new int[] {Move.to(result.getBestMove()) % 8, Move.to(result.getBestMove()) / 8}));
+    }
+
+    @Test
+    /**
+     * Test that a second search of the same position is answered mostly from the transposition table.
+     */
+    public void testTranspositionTable() {
+        Engine engine = new Engine(1);
+        Board kiwipete = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult first = engine.search(kiwipete, 0, 0, 4);
+        SearchResult second = engine.search(kiwipete, 0, 0, 4);
+        assertEquals(first.getBestMove(), second.getBestMove());
+        assertTrue(second.getNodes() * 10 < first.getNodes());
+        engine.clearHash();
+        assertEquals(first.getNodes(), engine.search(kiwipete, 0, 0, 4).getNodes());
+    }
+
+    @Test
+    /**
+     * Test the static exchange evaluation of captures, including x-rays, promotions and en passant.
+     */
+    public void testStaticExchange() {
+        assertEquals(100, new Board("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1").staticExchange(4, 36));//Rxe5, undefended
+        assertEquals(-220, new Board("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1").staticExchange(19, 36));//Nxe5
+        assertEquals(0, new Board("4k3/8/3p4/4p3/3P4/8/8/4K3 w - - 0 1").staticExchange(27, 36));//dxe5 dxe5
+        assertEquals(100, new Board("3qk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1").staticExchange(11, 35));//the queen can't recapture
+        assertEquals(-400, new Board("3rk3/8/8/3p4/8/8/3R4/4K3 w - - 0 1").staticExchange(11, 35));
+        assertEquals(-100, new Board("4k3/3P4/8/8/8/8/8/4K3 w - - 0 1").staticExchange(51, 59));//d8=Q Kxd8
+        assertEquals(100, new Board("4k3/8/8/2pP4/8/8/8/4K3 w - c6 0 1").staticExchange(35, 42));//dxc6 en passant
+        assertEquals(0, board.staticExchange(12, 28));//e4 is safe
+    }
+
+    @Test
+    /**
+     * Test that the incrementally updated score matches a freshly set up board after every move and unmove,
+     * including captures, castling, en passant and promotions.
+     */
+    public void testIncrementalScore() {
+        assertEquals(0, board.getScore());
+        assertEquals(24, board.getPhase());
+        Board kiwipete = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        checkScores(kiwipete, 2);
+        checkScores(new Board("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"), 3);
+        assertEquals(new Board(kiwipete.toFen()).getScore(), kiwipete.getScore());
+        assertEquals(2, new Board("4k3/8/8/8/8/8/8/QQ2K3 w - - 0 1").getPieceCount(Piece.WhiteQueen));
+    }
+
+    @Test
+    /**
+     * Test the pawn key and the pawn structure terms of the evaluation.
+     */
+    public void testPawnStructure() {
+        long startPawns = board.getPawnKey();
+        board.makeMove(Move.encode(6, 21, 0, null));//Nf3 leaves the pawns alone
+        assertEquals(startPawns, board.getPawnKey());
+        board.makeMove(Move.encode(52, 36, Move.DOUBLE_PUSH, null));
+        assertTrue(startPawns != board.getPawnKey());
+        assertEquals(0, new Board("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getPawnKey());
+        assertEquals(0, Evaluator.evaluate(new Board("4k3/pp3ppp/8/8/8/8/PP3PPP/4K3 w - - 0 1")));
+        assertEquals(0, Evaluator.evaluate(new Board("4k3/pp3ppp/8/8/8/8/PP3PPP/4K3 b - - 0 1")));
+        Board passed = new Board("4k3/8/8/3P4/8/8/8/4K3 w - - 0 1");
+        assertTrue(Evaluator.evaluate(passed) > passed.getScore());
+        Board blocked = new Board("4k3/3p4/8/3P4/8/8/8/4K3 w - - 0 1");
+        assertTrue(Evaluator.evaluate(blocked) < Evaluator.evaluate(passed) - Piece.BlackPawn.getValue());
+    }
+
+    @Test
+    /**
+     * Test the Polyglot keys against the examples in the Polyglot book format's description, and look moves up in a
+     * small book.
+     */
+    public void testOpeningBook() throws IOException {
+        assertEquals(0x463b96181691fc9cL, OpeningBook.key(board));
+        //the pawn that moved two squares can't be taken, so the en passant square doesn't count
+        assertEquals(0x823c9b50fd114196L, OpeningBook.key(new Board("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+        assertEquals(0x22a48b5a8e47ff78L, OpeningBook.key(new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")));
+        assertEquals(0x00fdd303c946bdd9L, OpeningBook.key(new Board("rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4")));
+        assertEquals(0x3c8123ea7b067637L, OpeningBook.key(new Board("rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3")));
+
+        Board castling = new Board("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        long[][] entries = {
+                {OpeningBook.key(board), 28 | 12 << 6, 10}, //e2e4
+                {OpeningBook.key(board), 27 | 11 << 6, 5}, //d2d4
+                {OpeningBook.key(board), 35 | 11 << 6, 50}, //d2e5 isn't legal, so it is never played
+                {OpeningBook.key(castling), 7 | 4 << 6, 1}, //e1h1 is how Polyglot writes O-O
+                {1, 0, 1},
+                {0xF000000000000000L, 0, 1} //sorts last, as keys are unsigned
+        };
+        Arrays.sort(entries, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return Long.compareUnsigned(a[0], b[0]);
+            }
+        });
+        File file = File.createTempFile("book", ".bin");
+        file.deleteOnExit();
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        for (long[] entry : entries) {
+            out.writeLong(entry[0]);
+            out.writeShort((int) entry[1]);
+            out.writeShort((int) entry[2]);
+            out.writeInt(0);
+        }
+        out.close();
+
+        OpeningBook book = new OpeningBook(file);
+        try {
+            assertEquals(entries.length, book.size());
+            assertEquals("e2e4", Move.toString(book.getBestMove(board)));
+            int played = book.getMove(board, new Random(1));
+            assertTrue(Move.toString(played).equals("e2e4") || Move.toString(played).equals("d2d4"));
+            int castle = book.getBestMove(castling);
+            assertEquals(6, Move.to(castle));
+            assertTrue(Move.is(castle, Move.CASTLING));
+            assertEquals(Move.NONE, book.getBestMove(new Board("4k3/8/8/8/8/8/8/4K3 w - - 0 1")));
+        } finally {
+            book.close();
+        }
+    }
+
+    @Test
+    /**
+     * Generate the KQK and KRK tablebases, check their longest mates against the known ones (10 and 16 moves), and
+     * play out a KRK mate by the tablebases.
+     */
+    public void testTablebases() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(2);
+        generator.generate("KQK");
+        generator.generate("KKR");//the same as KRK
+        assertEquals(19, generator.getLongestMate("KQK"));
+        assertEquals(31, generator.getLongestMate("KRK"));
+        File directory = File.createTempFile("tablebases", "");
+        assertTrue(directory.delete());
+        generator.write(directory);
+        generator.shutdown();
+
+        Tablebases tablebases = new Tablebases(directory);
+        try {
+            assertEquals(3, tablebases.size());//KK, KQK and KRK
+            assertEquals(1, tablebases.probe(new Board("k7/8/1K6/8/8/8/7Q/8 w - - 0 1")));
+            assertEquals(1, tablebases.probe(new Board("8/7q/8/8/8/1k6/8/K7 b - - 0 1")));//the same, colours swapped
+            assertEquals(0, tablebases.probe(new Board("k6Q/8/1K6/8/8/8/8/8 b - - 0 1")));
+            assertEquals(Tablebases.DRAW, tablebases.probe(new Board("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1")));//stalemate
+            assertEquals(Tablebases.UNKNOWN, tablebases.probe(board));
+
+            Board endgame = new Board("8/8/3k4/8/8/8/8/R3K3 w - - 0 1");
+            int plies = tablebases.probe(endgame);
+            assertTrue(plies % 2 == 1);
+            for (int left = plies; left > 0; left--) {
+                assertEquals(left, tablebases.probe(endgame));
+                endgame.makeMove(tablebases.getBestMove(endgame));
+            }
+            assertEquals(MoveResult.CHECKMATE, endgame.evaluateConditions());
+
+            Engine engine = new Engine(16);
+            engine.setTablebases(tablebases);
+            SearchResult result = engine.search(new Board("8/8/3k4/8/8/8/8/R3K3 w - - 0 1"), 0, 0);
+            assertEquals(plies, 32000 - result.getScore());//the score of a mate in that many plies
+            result = engine.search(new Board("8/8/3k4/8/3n4/8/8/3RK3 w - - 0 1"), 0, 0, 4);//KRKN, not covered
+            assertEquals("d1d4", Move.toString(result.getBestMove()));//wins the knight, reaching KRK
+            assertTrue(result.getScore() > 30000);
+        } finally {
+            tablebases.close();
+        }
+    }
+
+    @Test
+    /**
+     * Talk UCI to the engine through pipes: set up a position with moves, search to a fixed depth, then check that
+     * "stop" ends an infinite search, both one that is running and one that hasn't started yet, and that it does so
+     * within a few milliseconds.
+     */
+    public void testUci() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        PipedOutputStream commands = new PipedOutputStream(), replies = new PipedOutputStream();
+        final Uci uci = new Uci(new PipedInputStream(commands), replies);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new PipedInputStream(replies)));
+        PrintStream writer = new PrintStream(commands, true);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    uci.run();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        thread.start();
+
+        writer.println("uci");
+        assertEquals("uciok", readUntil(reader, "uciok"));
+        writer.println("isready");
+        assertEquals("readyok", reader.readLine());
+        //the queen on h5 mates on f7
+        writer.println("position startpos moves e2e4 e7e5 f1c4 b8c6 d1h5 g8f6");
+        writer.println("go depth 3");
+        assertEquals("bestmove h5f7", readUntil(reader, "bestmove"));
+
+        writer.println("position fen r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        Callable<String> bestMove = new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+                return readUntil(reader, "bestmove");
+            }
+        };
+        ExecutorService replyReader = Executors.newSingleThreadExecutor();
+        long[] micros = new long[9];
+        for (int i = 0; i < micros.length; i++) {
+            writer.println("go infinite");
+            Thread.sleep(100);
+            long start = System.nanoTime();
+            writer.println("stop");
+            //an infinite search that missed the stop would never answer, so give it far longer than it needs
+            assertTrue(replyReader.submit(bestMove).get(10, TimeUnit.SECONDS).startsWith("bestmove "));
+            micros[i] = (System.nanoTime() - start) / 1000;
+        }
+        //the median, so that one stop delayed by the garbage collector or the scheduler doesn't fail the test
+        Arrays.sort(micros);
+        long median = micros[micros.length / 2];
+        assertTrue("stop to bestmove took " + median / 1000.0 + " ms", median < 50000);//0.4 to 6 ms through these pipes on one core
+        writer.println("go infinite");
+        writer.println("stop");//most likely before the search has started
+        assertTrue(replyReader.submit(bestMove).get(10, TimeUnit.SECONDS).startsWith("bestmove "));
+        replyReader.shutdown();
+        writer.println("quit");
+        thread.join(1000);
+        assertFalse(thread.isAlive());
+    }
+
+    /**
+     * Read lines until one starts with the given text.
+     * @param reader Where to read from.
+     * @param prefix The start of the line to wait for.
+     * @return The line.
+     */
+    private static String readUntil(BufferedReader reader, String prefix) throws IOException {
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        fail("no line starting with " + prefix);
+        return null;
+    }
+
+    @Test
+    /**
+     * Play games with the GameController: fool's mate, random games that must end by the rules, and players that lose
+     * by answering late or illegally. Also check that ServiceLoader finds the built-in players.
+     */
+    public void testGameController() throws Exception {
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        GameResult result = new GameController(new Board(), scriptedPlayer("f2f3", "g2g4"), scriptedPlayer("e7e5", "d8h4"),
+                direct).start().get(1, TimeUnit.SECONDS);
+        assertEquals("0-1 (checkmate) f2f3 e7e5 g2g4 d8h4", result.toString());
+        assertEquals(1.0, result.getScore(false), 0);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 10; i++) {
+            result = new GameController(new Board(), new RandomPlayer(random), new RandomPlayer(random), direct)
+                    .start().get(10, TimeUnit.SECONDS);
+            Board replay = new Board();
+            for (int move : result.getMoves()) {
+                replay.makeMove(move);
+            }
+            MoveResult end = replay.evaluateConditions();
+            assertTrue(result.toString(), result.getReason() == GameResult.Reason.CHECKMATE ?
+                    end == MoveResult.CHECKMATE : end == MoveResult.STALEMATE);
+        }
+
+        Player silent = new RandomPlayer() {
+            @Override
+            public CompletableFuture<Integer> chooseMove(Board board, long millis) {
+                return new CompletableFuture<Integer>();//never answers
+            }
+        };
+        GameController late = new GameController(new Board(), new RandomPlayer(random), silent, direct);
+        late.setMillisPerMove(50);
+        result = late.start().get(5, TimeUnit.SECONDS);
+        assertEquals(GameResult.Outcome.WHITE_WINS, result.getOutcome());
+        assertEquals(GameResult.Reason.TIME_FORFEIT, result.getReason());
+        assertEquals(1, result.getMoves().length);
+
+        result = new GameController(new Board(), scriptedPlayer("e2e5"), new RandomPlayer(random), direct)
+                .start().get(1, TimeUnit.SECONDS);
+        assertEquals(GameResult.Reason.ILLEGAL_MOVE, result.getReason());
+        assertEquals(GameResult.Outcome.BLACK_WINS, result.getOutcome());
+
+        assertTrue(Players.getNames().containsAll(Arrays.asList(EnginePlayer.NAME, RandomPlayer.NAME)));
+        assertTrue(Players.create(RandomPlayer.NAME) instanceof RandomPlayer);
+        assertNotSame(Players.create(EnginePlayer.NAME), Players.create(EnginePlayer.NAME));
+    }
+
+    @Test
+    /**
+     * Play the engine against itself at a fast time control, reusing the players from game to game the way Tournament
+     * does. No game may be lost on time: clearing the transposition table for a new game must not count against the
+     * first move.
+     */
+    public void testEngineSelfPlay() throws Exception {
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        Player first = new EnginePlayer(), second = new EnginePlayer();
+        for (int i = 0; i < 6; i++) {
+            //queen and king against king, so the games are short
+            GameController game = new GameController(new Board("4k3/8/8/8/8/8/8/3QK3 w - - 0 1"),
+                    i % 2 == 0 ? first : second, i % 2 == 0 ? second : first, direct);
+            game.setMillisPerMove(10);
+            GameResult result = game.start().get(30, TimeUnit.SECONDS);
+            assertNotEquals(result.toString(), GameResult.Reason.TIME_FORFEIT, result.getReason());
+            assertNotEquals(result.toString(), GameResult.Reason.ERROR, result.getReason());
+        }
+    }
+
+    @Test
+    /**
+     * Check the match statistics against worked examples and count a forfeit, then run tournaments between two random
+     * players: a fixed number of games should find them within a few Elo of each other, and the SPRT should find them
+     * equal long before the game limit.
+     */
+    public void testTournament() throws InterruptedException {
+        MatchStatistics statistics = new MatchStatistics();
+        for (int i = 0; i < 3; i++) {
+            statistics.add(1);
+        }
+        statistics.add(0);
+        assertEquals(0.75, statistics.getScore(), 0);
+        assertEquals(190.85, statistics.getElo(), 0.01);//-400 log10(1 / 0.75 - 1)
+        double[] interval = statistics.getEloInterval(1.96);
+        assertTrue(interval[0] < 0 && interval[1] == Double.POSITIVE_INFINITY);//four games say little
+        //variance 0.1875, so with s0 = 0.5 and s1 = 0.75 the LLR is 4 * 0.25 * 0.25 / 0.375
+        assertEquals(2.0 / 3, statistics.getLogLikelihoodRatio(0, 190.85), 0.001);
+        assertEquals(-2.944, MatchStatistics.getLowerBound(0.05, 0.05), 0.001);
+        assertEquals(2.944, MatchStatistics.getUpperBound(0.05, 0.05), 0.001);
+        assertEquals(0, statistics.getForfeits());
+        assertEquals(5, statistics.add(0, true));//a loss on time is still a loss
+        assertEquals(1, statistics.getForfeits());
+        assertEquals(2, statistics.getLosses());
+
+        Tournament tournament = new Tournament(RandomPlayer.NAME, RandomPlayer.NAME);
+        tournament.setGames(400);
+        tournament.setConcurrency(4);
+        statistics = tournament.run();
+        assertEquals(400, statistics.getGames());
+        assertEquals(0, statistics.getElo(), 50);//mostly draws, so the standard error is about 7 Elo
+        assertEquals(0, statistics.getForfeits());
+
+        //the SPRT stops after a few dozen games, too few to pin the Elo down, so only its decision is checked
+        tournament.setGames(2000);
+        tournament.setSprt(0, 200, 0.001, 0.001);
+        statistics = tournament.run();
+        assertEquals(-1, tournament.getSprtDecision(statistics));
+        assertTrue(statistics.getGames() < 2000);
+    }
+
+    @Test
+    /**
+     * Talk to the game server over a socket: illegal and out of turn moves are refused, fool's mate ends the game, and
+     * a client beyond the session limit is turned away. Then play random games with the load generator, which must
+     * agree with the server about every move, first playing both sides and then against an opponent the sessions share.
+     */
+    public void testGameServer() throws IOException, InterruptedException {
+        GameServer server = new GameServer(0, 3);
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            assertEquals(Protocol.VERSION, in.readUnsignedByte());
+            assertEquals(0, in.readUnsignedByte());//no opponent
+            String[] moves = {"e2e5", "e7e5", "f2f3", "e7e5", "g2g4", "d8h4", "a2a3"};
+            MoveResult[] expected = {MoveResult.ILLEGAL, MoveResult.NOT_YOUR_TURN, MoveResult.NORMAL, MoveResult.NORMAL,
+                    MoveResult.NORMAL, MoveResult.CHECKMATE, MoveResult.ILLEGAL};
+            for (int i = 0; i < moves.length; i++) {
+                int from = squareOf(moves[i].substring(0, 2)), to = squareOf(moves[i].substring(2));
+                out.writeShort(from | to << 6);
+                assertEquals(moves[i], expected[i], Protocol.result(in.readUnsignedByte()));
+            }
+            out.writeShort(Protocol.NEW_GAME);
+            assertEquals(MoveResult.NORMAL, Protocol.result(in.readUnsignedByte()));
+
+            LoadGenerator generator = new LoadGenerator();
+            assertEquals(2, generator.connect(InetAddress.getLoopbackAddress(), server.getPort(), 3));
+            assertEquals(1, generator.getRefused());
+            generator.play(500, 2);
+            assertTrue(generator.getMoves() > 0);
+            assertEquals(0, generator.getErrors());
+            generator.close();
+            out.writeShort(Protocol.QUIT);
+            assertEquals(-1, in.read());
+            socket.close();
+        } finally {
+            server.close();
+        }
+
+        server = new GameServer(0, 3, RandomPlayer.NAME, 10, 1);//three sessions share one opponent
+        try {
+            LoadGenerator generator = new LoadGenerator();
+            assertEquals(3, generator.connect(InetAddress.getLoopbackAddress(), server.getPort(), 3));
+            generator.play(500, 3);
+            assertTrue(generator.getMoves() > 0);
+            assertEquals(0, generator.getErrors());
+            generator.close();
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Number a square.
+     * @param name The square, e.g. "e4".
+     * @return The square number, where a1 is 0 and h8 is 63.
+     */
+    private static int squareOf(String name) {
+        return (name.charAt(1) - '1') * 8 + name.charAt(0) - 'a';
+    }
+
+    /**
+     * Make a player that plays the given moves in turn, or Move.NONE for a move that isn't legal.
+     * @param moves The moves in long algebraic notation, e.g. "e2e4".
+     * @return The player.
+     */
+    private static Player scriptedPlayer(final String... moves) {
+        return new RandomPlayer() {
+            private int played;
+
+            @Override
+            public CompletableFuture<Integer> chooseMove(Board board, long millis) {
+                MoveList legal = new MoveList();
+                board.generateMoves(legal);
+                String wanted = moves[played++];
+                for (int i = 0; i < legal.size(); i++) {
+                    if (Move.toString(legal.get(i)).equals(wanted)) {
+                        return CompletableFuture.completedFuture(legal.get(i));
+                    }
+                }
+                return CompletableFuture.completedFuture(Move.NONE);
+            }
+        };
+    }
+
+    /**
+     * Make and unmake every move to a given depth, checking the score of each position against a new Board.
+     * @param position The position to start from.
+     * @param depth The number of plies to play.
+     */
+    private static void checkScores(Board position, int depth) {
+        assertEquals(new Board(position.toFen()).getScore(), position.getScore());
+        assertEquals(new Board(position.toFen()).getPhase(), position.getPhase());
+        assertEquals(new Board(position.toFen()).getPawnKey(), position.getPawnKey());
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        position.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            position.makeMove(moves.get(i));
+            checkScores(position, depth - 1);
+            position.unmakeMove();
+        }
+    }
+
+    @Test
+    public void stalemate() {
+        boolean pass = false;
+        for (int i = 0; i < 3; i++) {
+            System.err.println(i);
+            try {
+                board.movePiece(new int[] {6, 0}, new int[] {5, 2});
+                board.movePiece(new int[] {6, 7}, new int[] {5, 5});
+                board.movePiece(new int[] {5, 2}, new int[] {6, 0});
+                board.movePiece(new int[] {5, 5}, new int[] {6, 7});
+            } catch (Board.StalemateException e) {
+                pass = true;
+                e.printStackTrace();
+            } catch (Board.ChessException e) {
+                e.printStackTrace();  //To change body of catch statement use File | Settings | File Templates.
+                fail();
+            }
+        }
+        if (!pass) {
+            fail();
+        }
+    }
+
+    @Ignore
+    public void stalemate2() throws Board.ChessException {
+        Board emptyBoard = new Board(new Piece[][] {{Piece.WhiteKing, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, null},
+                {null, null, null, null, null, null, null, Piece.BlackKing}});
+        board = emptyBoard;
+        boolean pass = false;
+        for (int i = 0; i < 26; i++) {
+            System.err.println(i);
+            try {
+                board.movePiece(new int[] {0, 0}, new int[] {1, 1});
+                board.movePiece(new int[] {7, 7}, new int[] {6, 6});
+                board.movePiece(new int[] {1, 1}, new int[] {0, 0});
+                board.movePiece(new int[] {6, 6}, new int[] {7, 7});
+            } catch (Board.StalemateException e) {
+                pass = true;
+                e.printStackTrace();
+            }
+        }
+        if (!pass) {
+            fail();
+        }
+    }
+
+    @Ignore
+    public void testIntegerClone() {
+        Integer[] a = new Integer[] {1,2,3};
+        assertNotSame(a, a.clone());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package iseechess;
+
+/**
+ * Static helpers for moves packed into a single int, so that move generation and search never need to allocate
+ * an object per move.
+ *
+ * Bits 0-5 hold the square moved from and bits 6-11 the square moved to (see the Bitboards class for square numbers).
+ * Bits 12-16 are flags describing the move, and bits 17-20 hold the ordinal of the piece a pawn is promoted to, plus 1,
+ * or 0 if the move is not a promotion.
+ */
+public final class Move {
+    /**
+     * A value that is never a real move, since a piece cannot move from a square onto itself.
+     */
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 12;
+    public static final int EN_PASSANT = 1 << 13;
+    public static final int CASTLING = 1 << 14;
+    public static final int DOUBLE_PUSH = 1 << 15;
+    public static final int PROMOTION = 1 << 16;
+
+    private Move() {}
+
+    /**
+     * Pack a move into an int.
+     * @param from the square the piece is moving from.
+     * @param to the square the piece is moving to.
+     * @param flags any of CAPTURE, EN_PASSANT, CASTLING, DOUBLE_PUSH and PROMOTION, ORed together.
+     * @param promotion the piece a pawn is promoted to, or null.
+     * @return the packed move.
+     */
+    static int encode(int from, int to, int flags, Piece promotion) {
+        return from | (to << 6) | flags | (promotion == null ? 0 : (promotion.ordinal() + 1) << 17);
+    }
+
+    /**
+     * Get the square a move starts from.
+     * @param move the packed move.
+     * @return the square number.
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Get the square a move ends on.
+     * @param move the packed move.
+     * @return the square number.
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * Check whether a move has a flag set.
+     * @param move the packed move.
+     * @param flag one of the flag constants.
+     * @return true if the flag is set.
+     */
+    public static boolean is(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * Get the piece a pawn is promoted to.
+     * @param move the packed move.
+     * @return the promoted piece, or null if the move is not a promotion.
+     */
+    public static Piece promotion(int move) {
+        int index = (move >>> 17) & 15;
+        return index == 0 ? null : Bitboards.PIECES[index - 1];
+    }
+
+    /**
+     * Write a move in long algebraic notation, e.g. "e2e4" or "e7e8q", as used by UCI and most chess tools.
+     * @param move the packed move.
+     * @return the move as a String.
+     */
+    public static String toString(int move) {
+        String text = squareName(from(move)) + squareName(to(move));
+        Piece promotion = promotion(move);
+        if (promotion != null) {
+            text += "nbrq".charAt(promotion.ordinal() / 2 - 1);
+        }
+        return text;
+    }
+
+    /**
+     * Get the name of a square, e.g. "e4".
+     * @param square the square number.
+     * @return the name of the square.
+     */
+    public static String squareName(int square) {
+        return "" + (char) ('a' + Bitboards.x(square)) + (char) ('1' + Bitboards.y(square));
+    }
+}
@@ -0,0 +1,52 @@
+package iseechess;
+
+/**
+ * A reusable list of packed moves (see the Move class) backed by a plain int array.
+ * Move generation writes into a MoveList that the caller keeps and clears between positions, so generating moves
+ * creates no garbage. 256 entries is more than any chess position needs.
+ */
+public class MoveList {
+    private final int[] moves = new int[256];
+    private int size = 0;
+
+    /**
+     * Add a move to the end of the list.
+     * @param move the packed move.
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Get a move from the list.
+     * @param index the position of the move in the list.
+     * @return the packed move.
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replace a move in the list, e.g. while sorting it.
+     * @param index the position of the move in the list.
+     * @param move the packed move.
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Get the number of moves in the list.
+     * @return the number of moves.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empty the list so it can be reused.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,44 @@
+package iseechess;
+
+/**
+ * The MoveResult enum. Enumerates the outcomes of Board.tryMove(), which reports the same things movePiece() signals with
+ * ChessExceptions, but without throwing anything.
+ */
+public enum MoveResult {
+    /**
+     * The move was played and nothing special happened.
+     */
+    NORMAL,
+    /**
+     * The move was played and a pawn reached the last row. promotePawn() must be called next.
+     */
+    PROMOTION_PENDING,
+    /**
+     * The move was played and the player now to move is in check.
+     */
+    CHECK,
+    /**
+     * The move was played and the player now to move has been checkmated.
+     */
+    CHECKMATE,
+    /**
+     * The move was played and the game is drawn, by stalemate, the fifty-move rule or threefold repetition.
+     */
+    STALEMATE,
+    /**
+     * The move was not played because the piece cannot move there.
+     */
+    ILLEGAL,
+    /**
+     * The move was not played because the piece belongs to the player who is not to move.
+     */
+    NOT_YOUR_TURN;
+
+    /**
+     * Check whether the move was actually played on the board.
+     * @return true unless the move was illegal or made out of turn.
+     */
+    boolean wasPlayed() {
+        return this != ILLEGAL && this != NOT_YOUR_TURN;
+    }
+}
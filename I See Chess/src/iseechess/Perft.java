@@ -0,0 +1,217 @@
+package iseechess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reachable from a position in a given number of moves ("perft"), which is the standard way of
+ * testing a move generator: the counts for well known positions are published, and any bug in check detection,
+ * castling, en passant or promotion changes them. It is also the simplest measure of how fast Board can generate
+ * and play moves.
+ *
+ * The moves from the root position are split between the threads of a fork-join pool, each working on its own copy
+ * of the Board. Subtree counts are shared between the threads through a PerftTable, so a position reached by
+ * different move orders is only counted once.
+ *
+ * Run main() from the command line, e.g.
+ *     java -cp target/classes iseechess.Perft --threads=4 5 "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -"
+ * to print the count at every depth up to 5 and then the count below each move from the position ("divide").
+ */
+public class Perft {
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final int MAX_DEPTH = 63;
+
+    private final ForkJoinPool pool;
+    private final PerftTable table;
+
+    /**
+     * Make a perft counter.
+     * @param threads The number of threads to split the root moves between.
+     * @param hashMegabytes The size of the table of subtree counts in megabytes, or 0 to count every subtree in full,
+     *                      which is what to use when measuring the speed of the move generator.
+     */
+    public Perft(int threads, int hashMegabytes) {
+        pool = new ForkJoinPool(threads);
+        table = hashMegabytes > 0 ? new PerftTable(hashMegabytes) : null;
+    }
+
+    /**
+     * Count the positions reachable from a position in exactly depth moves.
+     * @param board The position to count from. It is not changed.
+     * @param depth The number of moves, from 0 to 63.
+     * @return The number of positions (leaf nodes).
+     */
+    public long count(Board board, int depth) {
+        MoveList moves = new MoveList();
+        long total = 0;
+        for (long nodes : divide(board, depth, moves)) {
+            total += nodes;
+        }
+        return depth == 0 ? 1 : total;
+    }
+
+    /**
+     * Count the positions reachable from a position in exactly depth moves, separately for each legal move.
+     * Each move's subtree is counted in the fork-join pool.
+     * @param board The position to count from. It is not changed.
+     * @param depth The number of moves, from 1 to 63.
+     * @param moves A list that is cleared and filled with the legal moves of the position.
+     * @return The number of positions below each move, in the same order as moves.
+     * @throws IllegalArgumentException If the depth is out of range.
+     */
+    public long[] divide(Board board, int depth, MoveList moves) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth " + depth);
+        }
+        moves.clear();
+        board.generateMoves(moves);
+        long[] counts = new long[moves.size()];
+        if (depth == 0) {
+            return counts;
+        }
+        List<RootMoveTask> tasks = new ArrayList<RootMoveTask>();
+        for (int i = 0; i < moves.size(); i++) {
+            tasks.add(new RootMoveTask(board, moves.get(i), depth - 1));
+        }
+        for (RootMoveTask task : tasks) {
+            pool.execute(task);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tasks.get(i).join();
+        }
+        return counts;
+    }
+
+    /**
+     * Stop the threads of the pool once they have finished their work.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Count the leaf nodes below a position, depth first, playing and taking back moves on the board.
+     * @param board The position, which is back as it was when this returns.
+     * @param depth The number of moves left to play.
+     * @param lists One reusable move list for each depth, so that counting allocates nothing.
+     * @return The number of leaf nodes.
+     */
+    private long count(Board board, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = board.getZobristKey();
+        if (table != null && depth > 1) {
+            long cached = table.get(key, depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        MoveList moves = lists[depth];
+        moves.clear();
+        board.generateMoves(moves);
+        if (depth == 1) {//every legal move is one leaf, no need to play them
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(board, depth - 1, lists);
+            board.unmakeMove();
+        }
+        if (table != null) {
+            table.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the subtree below one root move on a private copy of the board.
+     */
+    private class RootMoveTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board root;
+        private final int move, depth;
+
+        RootMoveTask(Board root, int move, int depth) {
+            this.root = root;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            Board board = root.clone();
+            MoveList[] lists = new MoveList[depth + 1];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = new MoveList();
+            }
+            board.makeMove(move);
+            return count(board, depth, lists);
+        }
+    }
+
+    /**
+     * Run perft from the command line. The arguments are the options, then the depth, then the FEN of the position,
+     * which defaults to the opening position. The options are --threads=N (default: one per processor) and
+     * --hash=MB (default 64, 0 turns the table off).
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors(), hash = 64, next = 0;
+        while (next < args.length && args[next].startsWith("--")) {
+            if (args[next].startsWith("--threads=")) {
+                threads = Integer.parseInt(args[next].substring("--threads=".length()));
+            } else if (args[next].startsWith("--hash=")) {
+                hash = Integer.parseInt(args[next].substring("--hash=".length()));
+            } else {
+                usage();
+            }
+            next++;
+        }
+        if (next >= args.length) {
+            usage();
+        }
+        int depth = Integer.parseInt(args[next++]);
+        StringBuilder fen = new StringBuilder();
+        for (int i = next; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        Board board = new Board(fen.length() > 0 ? fen.toString() : START_FEN);
+        Perft perft = new Perft(threads, hash);
+        System.out.println(board.toFen() + "  (" + threads + " threads, " + hash + " MB hash)");
+        for (int d = 1; d < depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(board, d);
+            report("depth " + d, nodes, System.nanoTime() - start);
+        }
+        long start = System.nanoTime();
+        MoveList moves = new MoveList();
+        long[] counts = perft.divide(board, depth, moves);
+        long elapsed = System.nanoTime() - start, total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            System.out.println("  " + Move.toString(moves.get(i)) + ": " + counts[i]);
+            total += counts[i];
+        }
+        report("depth " + depth, total, elapsed);
+        perft.shutdown();
+    }
+
+    /**
+     * Print a node count with the time it took and the speed.
+     * @param label What was counted.
+     * @param nodes The number of nodes.
+     * @param nanos The time taken in nanoseconds.
+     */
+    private static void report(String label, long nodes, long nanos) {
+        System.out.printf("%s: %d nodes in %.3f s (%.0f nodes/s)%n", label, nodes, nanos / 1e9, nodes / Math.max(nanos / 1e9, 1e-9));
+    }
+
+    private static void usage() {
+        System.err.println("usage: java iseechess.Perft [--threads=N] [--hash=MB] depth [FEN]");
+        System.exit(1);
+    }
+}
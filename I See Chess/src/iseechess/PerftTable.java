@@ -0,0 +1,64 @@
+package iseechess;
+
+/**
+ * Remembers the number of leaf nodes below positions that perft has already counted, keyed by the position's
+ * Zobrist key and the depth it was counted to. The same position is reached through many move orders, so most
+ * subtrees only need counting once.
+ *
+ * The table has a fixed size and a new entry simply overwrites whatever was in its slot. It is shared by all the
+ * threads of a perft run without locking: each entry is stored as two longs, the count and the key XORed with the
+ * count, so an entry that one thread read while another was writing it fails the check and counts as a miss.
+ */
+class PerftTable {
+    private static final int DEPTH_BITS = 6;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * Make a table of about the given size.
+     * @param megabytes The size of the table in megabytes, rounded down to a power of two entries.
+     */
+    PerftTable(int megabytes) {
+        long slots = Math.max(1L, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 29));
+        entries = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * Look up the count of a position.
+     * @param key The Zobrist key of the position.
+     * @param depth The depth the position was counted to.
+     * @return The number of leaf nodes, or -1 if the table doesn't have it.
+     */
+    long get(long key, int depth) {
+        int slot = slot(key) * 2;
+        long data = entries[slot + 1], check = entries[slot];
+        if ((check ^ data) != key || (data & ((1 << DEPTH_BITS) - 1)) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+
+    /**
+     * Store the count of a position, replacing whatever was in its slot.
+     * @param key The Zobrist key of the position.
+     * @param depth The depth the position was counted to.
+     * @param nodes The number of leaf nodes.
+     */
+    void put(long key, int depth, long nodes) {
+        int slot = slot(key) * 2;
+        long data = (nodes << DEPTH_BITS) | depth;
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+
+    /**
+     * Find the slot of a key. The low bits of a Zobrist key are as random as any others.
+     * @param key The Zobrist key.
+     * @return The slot index.
+     */
+    private int slot(long key) {
+        return (int) key & mask;
+    }
+}
@@ -1,3 +1,5 @@
+package iseechess;
+
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -25,13 +27,46 @@ public enum Piece {
      */
     BufferedImage image;
 
+    /**
+     * Whether each piece is white, indexed by ordinal.
+     */
+    private static final boolean[] WHITE = {true, false, true, false, true, false, true, false, true, false, true, false};
+
+    /**
+     * Whether each piece moves directly to a location, indexed by ordinal.
+     */
+    private static final boolean[] DIRECT = {true, true, true, true, false, false, false, false, false, false, true, true};
+
+    /**
+     * The material value of each piece in centipawns, indexed by ordinal. Kings are never traded, so they are worth nothing.
+     */
+    private static final int[] VALUES = {100, 100, 320, 320, 330, 330, 500, 500, 900, 900, 0, 0};
+
+    /**
+     * The possible moves of each piece, indexed by ordinal. Built once when the enum is loaded.
+     */
+    private static final int[][][] POSSIBLE_MOVES = new int[12][][];
+
+    static {
+        for (Piece piece : values()) {
+            POSSIBLE_MOVES[piece.ordinal()] = piece.buildPossibleMoves();
+        }
+    }
+
     /**
      * Method that returns if this piece is white.
      * @return Returns a boolean that is true if the piece is white.
      */
-    boolean isWhite() {
-        return (this == WhitePawn || this == WhiteKnight || this == WhiteBishop ||
-                this == WhiteRook || this == WhiteQueen || this == WhiteKing);
+    public boolean isWhite() {
+        return WHITE[ordinal()];
+    }
+
+    /**
+     * Get the material value of this piece, as the engine and the static exchange evaluation count it.
+     * @return The value in centipawns (hundredths of a pawn), or 0 for a king.
+     */
+    public int getValue() {
+        return VALUES[ordinal()];
     }
 
     /**
@@ -39,8 +74,7 @@ public enum Piece {
      * @return Returns a boolean that is true if the piece does move directly to a location.
      */
     boolean isDirectPiece() {
-        return (this == WhitePawn || this == BlackPawn || this == WhiteKnight ||
-                this == BlackKnight || this == WhiteKing || this == BlackKing);
+        return DIRECT[ordinal()];
     }
 
     /**
@@ -57,9 +91,18 @@ public enum Piece {
 
     /**
      * This method determines all of the possible moves, in any situation, combined a certain piece relative to itself. It returns these moves as coordinates, working off of this type of piece.
+     * The array is built once and shared between callers, so it must not be modified.
      * @return Returns an array of coordinates (arrays of length 2 of integers) consisting of coordinate pairs of locations the piece can move to relative to itself.
      */
     int[][] getPossibleMoves() {
+        return POSSIBLE_MOVES[ordinal()];
+    }
+
+    /**
+     * Build the array returned by getPossibleMoves(). Only called while the enum is being loaded.
+     * @return The possible moves of this piece relative to itself.
+     */
+    private int[][] buildPossibleMoves() {
         int[][] moves = null;
         int pawnConstant = -1;
         switch (this) {
@@ -0,0 +1,120 @@
+package iseechess;
+
+/**
+ * The terms of the evaluation that depend only on which piece stands on which square, so that Board can keep their
+ * sum up to date as pieces are put on and taken off squares instead of adding them up again for every position.
+ *
+ * Each piece is worth its material value (see Piece.getValue()) plus a bonus or penalty for its square, from
+ * piece-square tables. The king has one table for the middlegame and another for the endgame, and the two are blended
+ * by the game phase, which is worked out from the pieces left: PHASE_TOTAL with every piece on the board, falling
+ * towards 0 as they are traded. So the king hides behind its pawns early on and walks to the centre once the queens
+ * are gone. Scores are in centipawns, i.e. hundredths of a pawn.
+ */
+final class PieceSquareTables {
+    static final int PHASE_TOTAL = 24;
+
+    /**
+     * How much each piece counts towards the game phase, indexed by ordinal.
+     */
+    static final int[] PHASE_WEIGHTS = {0, 0, 1, 1, 1, 1, 2, 2, 4, 4, 0, 0};
+
+    /**
+     * The middlegame and endgame score of each piece on each square, from white's point of view, so black pieces
+     * count negative. Indexed by ordinal and then square.
+     */
+    static final int[][] MIDDLEGAME = new int[12][64], ENDGAME = new int[12][64];
+
+    /*
+     * The tables from white's point of view, written as seen from white's side of the board: the first row is the 8th
+     * rank. Index them with (square ^ 56) for a white piece and square for a black one.
+     */
+    private static final int[] PAWN_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+             5,  5, 10, 25, 25, 10,  5,  5,
+             0,  0,  0, 20, 20,  0,  0,  0,
+             5, -5,-10,  0,  0,-10, -5,  5,
+             5, 10, 10,-20,-20, 10, 10,  5,
+             0,  0,  0,  0,  0,  0,  0,  0};
+    private static final int[] KNIGHT_TABLE = {
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50};
+    private static final int[] BISHOP_TABLE = {
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10, 10, 10, 10, 10, 10, 10,-10,
+            -10,  5,  0,  0,  0,  0,  5,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20};
+    private static final int[] ROOK_TABLE = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+             5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+             0,  0,  0,  5,  5,  0,  0,  0};
+    private static final int[] QUEEN_TABLE = {
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+             -5,  0,  5,  5,  5,  5,  0, -5,
+              0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20};
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+             20, 20,  0,  0,  0,  0, 20, 20,
+             20, 30, 10,  0,  0, 10, 30, 20};
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50,-40,-30,-20,-20,-30,-40,-50,
+            -30,-20,-10,  0,  0,-10,-20,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-30,  0,  0,  0,  0,-30,-30,
+            -50,-30,-30,-30,-30,-30,-30,-50};
+    private static final int[][] TABLES = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_MIDDLEGAME_TABLE};
+
+    static {
+        for (Piece piece : Piece.values()) {
+            int type = piece.ordinal() / 2, sign = piece.isWhite() ? 1 : -1, flip = piece.isWhite() ? 56 : 0;
+            for (int square = 0; square < 64; square++) {
+                int middlegame = TABLES[type][square ^ flip];
+                int endgame = type == 5 ? KING_ENDGAME_TABLE[square ^ flip] : middlegame;
+                MIDDLEGAME[piece.ordinal()][square] = sign * (piece.getValue() + middlegame);
+                ENDGAME[piece.ordinal()][square] = sign * (piece.getValue() + endgame);
+            }
+        }
+    }
+
+    private PieceSquareTables() {}
+
+    /**
+     * Blend a middlegame and an endgame score by the game phase.
+     * @param middlegame The middlegame score.
+     * @param endgame The endgame score.
+     * @param phase The game phase, which may be above PHASE_TOTAL after promotions.
+     * @return The score.
+     */
+    static int blend(int middlegame, int endgame, int phase) {
+        return middlegame + (endgame - middlegame) * (PHASE_TOTAL - Math.min(phase, PHASE_TOTAL)) / PHASE_TOTAL;
+    }
+}
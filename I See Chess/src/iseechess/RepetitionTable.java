@@ -0,0 +1,135 @@
+package iseechess;
+
+/**
+ * Counts how many times each position has occurred in a game, keyed by the position's Zobrist key.
+ * Adding a position and looking up its count both take constant time, so checking for threefold repetition
+ * after a move no longer depends on the length of the game.
+ *
+ * The table is keyed by the Zobrist key alone, not by the key and the halfmove clock. The clock can't be part of the
+ * key, since it goes up by one every move, so a repeated position never has the same clock twice. What the clock
+ * tells a repetition check is that only the positions since the last pawn move or capture can repeat, and the key
+ * already makes that so. Such a move changes the pawns or the material, and so the key, and can't be undone in a
+ * game. A lost castling right or en passant square can't come back either, and they are in the key too. So a
+ * position's count only ever includes occurrences since the last irreversible move, and there's no need to clear the
+ * table or scan back halfmoveClock entries. The older positions' counts simply stop mattering. A search takes back
+ * what it adds, see remove(), so the table holds no more than the positions of the game itself.
+ */
+class RepetitionTable implements Cloneable {
+    private long[] keys = new long[64];
+    private int[] counts = new int[64];
+    private boolean[] used = new boolean[64];
+    private int size = 0;
+
+    /**
+     * Record one more occurrence of a position.
+     * @param key The Zobrist key of the position.
+     * @return The number of times the position has now occurred.
+     */
+    int add(long key) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int slot = find(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        return ++counts[slot];
+    }
+
+    /**
+     * Take back one occurrence of a position, e.g. when a move is undone. A position with no occurrences left is
+     * deleted, so that a search, which adds and takes back millions of positions, doesn't fill the table with them.
+     * @param key The Zobrist key of the position.
+     */
+    void remove(long key) {
+        int slot = find(key);
+        if (!used[slot] || --counts[slot] > 0) {
+            return;
+        }
+        //delete the key, and move back any later key of the same run that could no longer be found past the gap
+        int mask = keys.length - 1, hole = slot;
+        used[hole] = false;
+        size--;
+        for (int next = (hole + 1) & mask; used[next]; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                used[hole] = true;
+                used[next] = false;
+                hole = next;
+            }
+        }
+    }
+
+    /**
+     * Get the number of times a position has occurred.
+     * @param key The Zobrist key of the position.
+     * @return The number of occurrences, 0 if it never occurred.
+     */
+    int count(long key) {
+        int slot = find(key);
+        return used[slot] ? counts[slot] : 0;
+    }
+
+    /**
+     * Find the slot holding a key, or the empty slot where it would go, by linear probing.
+     * @param key The Zobrist key.
+     * @return The slot index.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Get the slot a key goes in if nothing else is there.
+     * @param key The Zobrist key.
+     * @return The slot index.
+     */
+    private int home(long key) {
+        return (int) (key ^ (key >>> 32)) & (keys.length - 1);
+    }
+
+    /**
+     * Double the capacity of the table and re-insert every key.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = find(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    @Override
+    /**
+     * Copy the table, so that a cloned Board keeps its own counts.
+     */
+    protected RepetitionTable clone() {
+        try {
+            RepetitionTable toReturn = (RepetitionTable) super.clone();
+            toReturn.keys = keys.clone();
+            toReturn.counts = counts.clone();
+            toReturn.used = used.clone();
+            return toReturn;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(); // shouldn't happen
+        }
+    }
+}
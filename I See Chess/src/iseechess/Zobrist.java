@@ -0,0 +1,63 @@
+package iseechess;
+
+/**
+ * The random numbers used to build a Board's Zobrist key.
+ * A position's key is the XOR of one number for every piece on its square, plus numbers for the player to move,
+ * each castling flag that is still up and the column of the en passant square. Since XOR undoes itself, Board can keep
+ * its key up to date by XORing numbers in and out as pieces move instead of recomputing it.
+ *
+ * The numbers come from a fixed seed so that keys are the same every time the program runs.
+ */
+public final class Zobrist {
+    /**
+     * One number for each piece on each square, indexed by Piece.ordinal() and then by square.
+     */
+    static final long[][] PIECE_SQUARE = new long[12][64];
+
+    /**
+     * XORed in when it is black's turn.
+     */
+    static final long BLACK_TO_MOVE;
+
+    /**
+     * One number per castling flag, indexed the same way as Board's castlingFlags: colour (0 is white) and then
+     * side (0 is right, 1 is left).
+     */
+    static final long[][] CASTLING = new long[2][2];
+
+    /**
+     * One number for each column the en passant square can be on.
+     */
+    static final long[] EN_PASSANT = new long[8];
+
+    private static long seed = 0x1C5EE4E55L;
+
+    static {
+        for (int i = 0; i < 12; i++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_SQUARE[i][square] = next();
+            }
+        }
+        BLACK_TO_MOVE = next();
+        for (int c = 0; c < 2; c++) {
+            CASTLING[c][0] = next();
+            CASTLING[c][1] = next();
+        }
+        for (int x = 0; x < 8; x++) {
+            EN_PASSANT[x] = next();
+        }
+    }
+
+    private Zobrist() {}
+
+    /**
+     * Get the next number from a SplitMix64 generator. Only called while the class is loaded.
+     * @return a random 64-bit number.
+     */
+    private static long next() {
+        long z = (seed += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,286 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+
+import java.io.Closeable;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The built-in chess engine, which finds a move for the player to move in a Board.
+ *
+ * The engine searches a copy of the board, so the Board passed in is never changed and may go on being drawn by
+ * ChessPanel while the engine thinks. A search runs on the thread that calls search(); to keep the user interface
+ * responsive, call it from a background thread, and call stop() from any thread to make it return early.
+ *
+ * The engine keeps a transposition table between searches, so thinking about the next move of the same game starts
+ * with what it already knows. Its size is set when the engine is made.
+ *
+ * An engine made with more than one thread searches in parallel ("lazy SMP", see the Search class): every thread
+ * searches the same position on its own copy of the board, and they share nothing but the transposition table,
+ * which needs no locks, so adding threads adds no contention. The main thread's move is the one returned.
+ *
+ * Given an opening book (see setOpeningBook()), the engine plays a book move at once whenever there is one, choosing
+ * among the book's moves in proportion to their weights, and only searches once the game leaves the book. Likewise,
+ * given endgame tablebases (see setTablebases()), it plays the tablebases' move in any position they cover.
+ *
+ * A stop() only reaches a search that has started. A caller that asks another thread to search should take
+ * getStopCount() first and pass it to search(), so that a stop() which comes before the search starts still stops it.
+ *
+ * close() an engine that is no longer wanted, so that its helper threads end.
+ *
+ * For example, to think for two seconds:
+ *     SearchResult result = new Engine().search(board, 2000, 0);
+ *     board.makeMove(result.getBestMove());
+ */
+public class Engine implements Closeable {
+    public static final int DEFAULT_HASH_MEGABYTES = 64;
+    public static final int MAX_DEPTH = Search.MAX_PLY;
+
+    private final TranspositionTable table;
+    private final int threads;
+    private final ExecutorService helperPool;
+    private final MoveOrdering[] orderings; //one per thread, kept from one search to the next
+    private final PawnTable[] pawnTables; //likewise
+    private volatile Search[] current;
+    private final AtomicInteger stops = new AtomicInteger(); //the number of stop() calls so far
+    private volatile OpeningBook book;
+    private volatile Tablebases tablebases;
+    private final Random bookRandom = new Random();
+
+    /**
+     * Make an engine with a transposition table of the default size.
+     */
+    public Engine() {
+        this(DEFAULT_HASH_MEGABYTES);
+    }
+
+    /**
+     * Make an engine with a transposition table of the given size. The table is allocated outside the Java heap.
+     * @param hashMegabytes The size of the transposition table in megabytes.
+     */
+    public Engine(int hashMegabytes) {
+        this(hashMegabytes, 1);
+    }
+
+    /**
+     * Make an engine that searches with several threads.
+     * @param hashMegabytes The size of the shared transposition table in megabytes.
+     * @param threads The number of threads to search with, at least 1.
+     */
+    public Engine(int hashMegabytes, int threads) {
+        table = new TranspositionTable(hashMegabytes);
+        this.threads = Math.max(1, threads);
+        orderings = new MoveOrdering[this.threads];
+        pawnTables = new PawnTable[this.threads];
+        for (int i = 0; i < this.threads; i++) {
+            orderings[i] = new MoveOrdering();
+            pawnTables[i] = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+        }
+        helperPool = this.threads > 1 ? Executors.newFixedThreadPool(this.threads - 1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "search helper");
+                thread.setDaemon(true);//a finished game shouldn't have to shut the engine down
+                return thread;
+            }
+        }) : null;
+    }
+
+    /**
+     * Get the number of threads the engine searches with.
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the opening book to play moves from before searching.
+     * @param book The book, or null to always search.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Get the opening book the engine plays moves from.
+     * @return The book, or null if there is none.
+     */
+    public OpeningBook getOpeningBook() {
+        return book;
+    }
+
+    /**
+     * Set the endgame tablebases to play from and to score positions with in the search.
+     * @param tablebases The tablebases, or null for none.
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Get the endgame tablebases the engine plays from.
+     * @return The tablebases, or null if there are none.
+     */
+    public Tablebases getTablebases() {
+        return tablebases;
+    }
+
+    /**
+     * Search a position until a time or node limit is reached.
+     * @param board The position to search. It is not changed.
+     * @param millis The time limit in milliseconds, or 0 for none.
+     * @param nodes The node limit, or 0 for none.
+     * @return The best move found and the principal variation.
+     */
+    public SearchResult search(Board board, long millis, long nodes) {
+        return search(board, millis, nodes, Search.MAX_PLY);
+    }
+
+    /**
+     * Search a position until a time, node or depth limit is reached. With no limits at all, the search runs until
+     * stop() is called or it finds a forced mate.
+     * @param board The position to search. It is not changed.
+     * @param millis The time limit in milliseconds, or 0 for none.
+     * @param nodes The node limit, or 0 for none.
+     * @param depth The deepest iteration to search, in plies.
+     * @return The best move found and the principal variation. The node count includes every thread's nodes,
+     *         but only the main thread's count towards the node limit. A book or tablebase move comes back with no
+     *         depth or nodes.
+     */
+    public SearchResult search(Board board, long millis, long nodes, int depth) {
+        return search(board, millis, nodes, depth, stops.get());
+    }
+
+    /**
+     * Search a position until a time, node or depth limit is reached, or until stop() is called, counting the stop()
+     * calls since getStopCount() returned stopCount as well.
+     * @param board The position to search. It is not changed.
+     * @param millis The time limit in milliseconds, or 0 for none.
+     * @param nodes The node limit, or 0 for none.
+     * @param depth The deepest iteration to search, in plies.
+     * @param stopCount What getStopCount() returned when the search was asked for.
+     * @return The best move found and the principal variation, as search(board, millis, nodes, depth) returns.
+     */
+    public SearchResult search(Board board, long millis, long nodes, final int depth, int stopCount) {
+        OpeningBook book = this.book;
+        if (book != null) {
+            int move = book.getMove(board, bookRandom);
+            if (move != Move.NONE) {
+                return new SearchResult(move, 0, 0, 0, 0, new int[]{move});
+            }
+        }
+        Tablebases tablebases = this.tablebases;
+        if (tablebases != null) {
+            int move = tablebases.getBestMove(board);
+            if (move != Move.NONE) {
+                return new SearchResult(move, Search.tablebaseScore(tablebases.probe(board), 0), 0, 0, 0, new int[]{move});
+            }
+        }
+        table.newSearch();
+        Search[] searches = new Search[threads];
+        Future<?>[] helpers = new Future<?>[threads - 1];
+        for (int i = 0; i < threads; i++) {
+            orderings[i].newSearch();
+            searches[i] = new Search(board.clone(), table, i, orderings[i], pawnTables[i], tablebases);
+        }
+        current = searches;
+        if (stops.get() != stopCount) {//stop() came before there was a search for it to stop
+            for (Search search : searches) {
+                search.stop();
+            }
+        }
+        try {
+            for (int i = 1; i < threads; i++) {
+                final Search helper = searches[i];
+                helpers[i - 1] = helperPool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        helper.run(0, 0, depth);
+                    }
+                });
+            }
+            SearchResult result = searches[0].run(millis, nodes, depth);
+            long totalNodes = result.getNodes();
+            for (int i = 1; i < threads; i++) {
+                searches[i].stop();
+                waitFor(helpers[i - 1]);
+                totalNodes += searches[i].getNodes();
+            }
+            return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), totalNodes,
+                    result.getMillis(), result.getPrincipalVariation());
+        } finally {
+            current = null;
+        }
+    }
+
+    /**
+     * Wait for a helper search to finish, so that its thread is free for the next search.
+     * @param helper The Future of the helper search.
+     */
+    private static void waitFor(Future<?> helper) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                helper.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;//the helper was already told to stop, so this won't take long
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Forget everything learned in earlier searches, e.g. when a new game starts.
+     */
+    public void clearHash() {
+        table.clear();
+        for (PawnTable pawns : pawnTables) {
+            pawns.clear();
+        }
+    }
+
+    /**
+     * Get the number of times stop() has been called, to pass to search().
+     * @return The number of stop() calls so far.
+     */
+    public int getStopCount() {
+        return stops.get();
+    }
+
+    /**
+     * Make the search in progress, if any, return as soon as possible with the best move found so far.
+     */
+    public void stop() {
+        stops.incrementAndGet();//before looking for the search, which looks at the count after publishing itself
+        Search[] searches = current;
+        if (searches != null) {
+            for (Search search : searches) {
+                search.stop();
+            }
+        }
+    }
+
+    /**
+     * Shut down the engine's helper threads. The transposition table is freed once the engine is no longer referenced.
+     * The engine can't search with more than one thread after this.
+     */
+    @Override
+    public void close() {
+        if (helperPool != null) {
+            helperPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Piece;
+
+/**
+ * The static evaluation used by the search: a guess of how good a position is without looking at any moves.
+ * It adds up:
+ *
+ * 1. the material of each side and a bonus or penalty for the square each piece stands on, with the king's squares
+ *    blended between a middlegame and an endgame table by how much material is left. Board keeps that sum up to date
+ *    as moves are made and unmade, see Board.getScore();
+ * 2. the pawn structure: doubled, isolated and passed pawns, see PawnTable, which caches it by pawn key;
+ * 3. the pawn shield, the pawns of its own colour just in front of each king, which count in the middlegame only.
+ *    This depends on the king as well as the pawns, so it isn't cached, but it is only two masked bit counts.
+ *
+ * Scores are in centipawns, i.e. hundredths of a pawn.
+ */
+public final class Evaluator {
+    private static final int PHASE_TOTAL = 24; //the phase of the opening position, see Board.getPhase()
+    private static final int SHIELD_NEAR = 12, SHIELD_FAR = 6; //for each shield pawn one and two ranks in front of the king
+
+    /**
+     * The squares one and two ranks in front of a king on its own and the adjacent files, indexed by colour
+     * (0 for white) and the king's square.
+     */
+    private static final long[][] SHIELD_NEAR_MASKS = new long[2][64], SHIELD_FAR_MASKS = new long[2][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7, rank = square >>> 3;
+            long files = 0;
+            for (int f = Math.max(0, file - 1); f <= Math.min(7, file + 1); f++) {
+                files |= 0x0101010101010101L << f;
+            }
+            SHIELD_NEAR_MASKS[0][square] = rank < 7 ? files & (0xFFL << (rank + 1) * 8) : 0;
+            SHIELD_FAR_MASKS[0][square] = rank < 6 ? files & (0xFFL << (rank + 2) * 8) : 0;
+            SHIELD_NEAR_MASKS[1][square] = rank > 0 ? files & (0xFFL << (rank - 1) * 8) : 0;
+            SHIELD_FAR_MASKS[1][square] = rank > 1 ? files & (0xFFL << (rank - 2) * 8) : 0;
+        }
+    }
+
+    private Evaluator() {}
+
+    /**
+     * Evaluate a position from the point of view of the player to move, working out the pawn structure from scratch.
+     * @param board The position.
+     * @return The score in centipawns, positive if the player to move is better.
+     */
+    public static int evaluate(Board board) {
+        return evaluate(board, null);
+    }
+
+    /**
+     * Evaluate a position from the point of view of the player to move.
+     * @param board The position.
+     * @param pawns The pawn table to look the pawn structure up in, or null to work it out.
+     * @return The score in centipawns, positive if the player to move is better.
+     */
+    static int evaluate(Board board, PawnTable pawns) {
+        long whitePawns = board.getBitboard(Piece.WhitePawn), blackPawns = board.getBitboard(Piece.BlackPawn);
+        int structure = pawns != null ? pawns.probe(board.getPawnKey(), whitePawns, blackPawns) :
+                PawnTable.compute(whitePawns, blackPawns);
+        int middlegame = PawnTable.middlegame(structure) +
+                shield(whitePawns, Long.numberOfTrailingZeros(board.getBitboard(Piece.WhiteKing)), 0) -
+                shield(blackPawns, Long.numberOfTrailingZeros(board.getBitboard(Piece.BlackKing)), 1);
+        int endgame = PawnTable.endgame(structure);
+        int phase = Math.min(board.getPhase(), PHASE_TOTAL);
+        int score = board.getScore() + middlegame + (endgame - middlegame) * (PHASE_TOTAL - phase) / PHASE_TOTAL;
+        return board.getIsWhitesTurn() ? score : -score;
+    }
+
+    /**
+     * Score the pawn shield of a king.
+     * @param pawns The bitboard of the pawns of the king's colour.
+     * @param king The king's square, or 64 if there is no king.
+     * @param c The king's colour, 0 for white and 1 for black.
+     * @return The middlegame bonus.
+     */
+    private static int shield(long pawns, int king, int c) {
+        if (king == 64) {
+            return 0;
+        }
+        return SHIELD_NEAR * Long.bitCount(pawns & SHIELD_NEAR_MASKS[c][king]) +
+                SHIELD_FAR * Long.bitCount(pawns & SHIELD_FAR_MASKS[c][king]);
+    }
+}
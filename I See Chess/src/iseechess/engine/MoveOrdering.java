@@ -0,0 +1,83 @@
+package iseechess.engine;
+
+/**
+ * What one search thread has learned about which quiet moves (moves that capture nothing) tend to be good,
+ * for MovePicker to try them first:
+ *
+ * Killer moves are the last two quiet moves that caused a cutoff at each ply. Positions at the same ply are usually
+ * alike, so a move that refuted one often refutes its siblings too.
+ *
+ * The history table scores every piece and target square by how often, and how deep, moving that piece to that
+ * square has caused a cutoff anywhere in the tree.
+ *
+ * Each search thread has its own MoveOrdering, so the tables are never shared or locked, and they are plain arrays
+ * allocated once, so updating them allocates nothing.
+ */
+final class MoveOrdering {
+    private static final int HISTORY_LIMIT = 1 << 20; //scores are halved when one reaches this, so recent cutoffs weigh more
+
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    private final int[] history = new int[12 * 64];
+
+    /**
+     * Remember a quiet move that caused a cutoff as a killer move.
+     * @param ply The distance from the root.
+     * @param move The packed move.
+     */
+    void addKiller(int ply, int move) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    /**
+     * Get one of the killer moves of a ply.
+     * @param ply The distance from the root.
+     * @param slot 0 for the most recent killer, 1 for the one before.
+     * @return The packed move, or Move.NONE.
+     */
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    /**
+     * Reward a quiet move that caused a cutoff. Deeper cutoffs save more work, so they count for more.
+     * @param piece The ordinal of the piece that moved.
+     * @param to The square it moved to.
+     * @param depth The depth of the search where the cutoff happened.
+     */
+    void addHistory(int piece, int to, int depth) {
+        int index = piece * 64 + to;
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Get the history score of a move.
+     * @param piece The ordinal of the piece that moves.
+     * @param to The square it moves to.
+     * @return The score, higher for moves that have caused more cutoffs.
+     */
+    int history(int piece, int to) {
+        return history[piece * 64 + to];
+    }
+
+    /**
+     * Get ready for the search of a new position: the killers belong to the old tree, so they are forgotten, and the
+     * history is kept but counts for half.
+     */
+    void newSearch() {
+        for (int[] ply : killers) {
+            ply[0] = 0;
+            ply[1] = 0;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] /= 2;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import iseechess.Piece;
+
+/**
+ * Hands out the moves of a position one at a time, best guesses first, since alpha-beta prunes the most when the
+ * best move is tried first. The moves come in stages:
+ *
+ * 1. the hash move, the best move found the last time this position was searched;
+ * 2. captures and queen promotions, most valuable victim first and, among those, least valuable attacker first
+ *    (MVV-LVA), so that winning a queen with a pawn comes before winning a pawn with a queen;
+ * 3. the two killer moves of this ply, see MoveOrdering;
+ * 4. the remaining quiet moves, by their history score.
+ *
+ * Board generates every legal move in one pass, so the stages order that list rather than generating moves
+ * separately. Within a stage the best remaining move is picked by a scan when it is asked for, so if the first move
+ * causes a cutoff the rest are never sorted. Each ply of a search keeps one MovePicker, so nothing is allocated.
+ * The quiescence search uses only the second stage, see initTactical().
+ */
+final class MovePicker {
+    private static final int HASH = 0, CAPTURES = 1, KILLERS = 2, QUIETS = 3, DONE = 4;
+
+    private final MoveList moves = new MoveList();
+    private final int[] scores = new int[256];
+    private Board board;
+    private MoveOrdering ordering;
+    private int stage, next, capturesEnd, hashMove, ply, killerSlot;
+    private boolean tacticalOnly;
+
+    /**
+     * Generate the moves of a position and get ready to hand them out.
+     * @param board The position.
+     * @param hashMove The move to try first, or Move.NONE.
+     * @param ply The distance from the root, for the killer moves.
+     * @param ordering The killer and history tables of the search thread.
+     */
+    void init(Board board, int hashMove, int ply, MoveOrdering ordering) {
+        init(board, hashMove, ply, ordering, false);
+    }
+
+    /**
+     * Get ready to hand out only the captures and queen promotions of a position, for the quiescence search.
+     * @param board The position.
+     * @param ordering The killer and history tables of the search thread.
+     */
+    void initTactical(Board board, MoveOrdering ordering) {
+        init(board, Move.NONE, 0, ordering, true);
+    }
+
+    /**
+     * Generate the moves of a position and get ready to hand out all of them or only the tactical ones.
+     * @param board The position.
+     * @param hashMove The move to try first, or Move.NONE.
+     * @param ply The distance from the root, for the killer moves.
+     * @param ordering The killer and history tables of the search thread.
+     * @param tacticalOnly true to stop after the captures.
+     */
+    private void init(Board board, int hashMove, int ply, MoveOrdering ordering, boolean tacticalOnly) {
+        this.board = board;
+        this.tacticalOnly = tacticalOnly;
+        this.ordering = ordering;
+        this.hashMove = hashMove;
+        this.ply = ply;
+        moves.clear();
+        board.generateMoves(moves);
+        stage = hashMove == Move.NONE ? CAPTURES : HASH;
+        next = 0;
+        killerSlot = 0;
+        capturesEnd = 0;
+        for (int i = 0; i < moves.size(); i++) {//captures go to the front of the list, quiet moves after them
+            int move = moves.get(i);
+            if (isTactical(move)) {
+                moves.set(i, moves.get(capturesEnd));
+                moves.set(capturesEnd, move);
+                scores[capturesEnd++] = mvvLva(move);
+            }
+        }
+    }
+
+    /**
+     * Get the number of legal moves, including the quiet ones that initTactical() leaves out, e.g. to tell checkmate and stalemate apart from other positions.
+     * @return The number of moves.
+     */
+    int size() {
+        return moves.size();
+    }
+
+    /**
+     * Get the next move to try.
+     * @return The packed move, or Move.NONE once every move has been handed out.
+     */
+    @SuppressWarnings("fallthrough")
+    int next() {
+        switch (stage) {
+            case HASH:
+                stage = CAPTURES;
+                for (int i = 0; i < moves.size(); i++) {
+                    if (moves.get(i) == hashMove) {
+                        return hashMove;
+                    }
+                }
+                hashMove = Move.NONE;//not a legal move here, e.g. from a different position with the same key
+                //fall through
+            case CAPTURES:
+                while (next < capturesEnd) {
+                    int move = pickBest(next, capturesEnd);
+                    next++;
+                    if (move != hashMove) {
+                        return move;
+                    }
+                }
+                if (tacticalOnly) {
+                    stage = DONE;
+                    return Move.NONE;
+                }
+                stage = KILLERS;
+                for (int i = capturesEnd; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    scores[i] = ordering.history(board.getPiece(Move.from(move)).ordinal(), Move.to(move));
+                }
+                //fall through
+            case KILLERS:
+                while (killerSlot < 2) {
+                    int killer = ordering.killer(ply, killerSlot++);
+                    if (killer == Move.NONE || killer == hashMove) {
+                        continue;
+                    }
+                    for (int i = next; i < moves.size(); i++) {
+                        if (moves.get(i) == killer) {
+                            swap(i, next++);
+                            return killer;
+                        }
+                    }
+                }
+                stage = QUIETS;
+                //fall through
+            case QUIETS:
+                while (next < moves.size()) {
+                    int move = pickBest(next, moves.size());
+                    next++;
+                    if (move != hashMove) {
+                        return move;
+                    }
+                }
+                stage = DONE;
+                //fall through
+            default:
+                return Move.NONE;
+        }
+    }
+
+    /**
+     * Check whether a move is searched with the captures: a capture or a promotion to a queen.
+     * @param move The packed move.
+     * @return true if it is.
+     */
+    static boolean isTactical(int move) {
+        Piece promotion = Move.promotion(move);
+        return Move.is(move, Move.CAPTURE) || promotion == Piece.WhiteQueen || promotion == Piece.BlackQueen;
+    }
+
+    /**
+     * Score a capture by MVV-LVA: the value of the captured piece, less a little for the value of the capturing one.
+     * @param move The packed move.
+     * @return The score, higher for better captures.
+     */
+    private int mvvLva(int move) {
+        Piece victim = Move.is(move, Move.EN_PASSANT) ? Piece.WhitePawn : board.getPiece(Move.to(move));
+        int score = victim == null ? 0 : victim.getValue() * 8;
+        if (Move.promotion(move) != null) {
+            score += Piece.WhiteQueen.getValue() * 8;
+        }
+        return score - board.getPiece(Move.from(move)).ordinal() / 2;
+    }
+
+    /**
+     * Move the highest-scoring move of part of the list to the front of that part.
+     * @param from The first index of the part.
+     * @param to The index just after the part.
+     * @return The move now at index from.
+     */
+    private int pickBest(int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        swap(best, from);
+        return moves.get(from);
+    }
+
+    /**
+     * Swap two moves and their scores.
+     * @param i The index of one move.
+     * @param j The index of the other.
+     */
+    private void swap(int i, int j) {
+        int move = moves.get(i), score = scores[i];
+        moves.set(i, moves.get(j));
+        scores[i] = scores[j];
+        moves.set(j, move);
+        scores[j] = score;
+    }
+}
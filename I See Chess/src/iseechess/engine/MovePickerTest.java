@@ -0,0 +1,126 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of MovePicker, which is private to the engine, so they can't go in ISeeChessTest with the rest.
+ */
+public class MovePickerTest {
+    private static final String CAPTURES = "4k3/8/8/3q1r2/4P3/2N5/8/4K3 w - - 0 1"; //exd5, Nxd5 and exf5
+
+    @Test
+    /**
+     * Test that a legal hash move comes first and only once, followed by the rest of the moves.
+     */
+    public void testHashMoveFirst() {
+        Board board = new Board();
+        int e2e4 = find(board, "e2e4");
+        List<String> picked = pick(board, e2e4, new MoveOrdering());
+        assertEquals("e2e4", picked.get(0));
+        assertEveryMoveOnce(board, picked);
+    }
+
+    @Test
+    /**
+     * Test that captures come in MVV-LVA order, after the hash move if it is one of them, and before a killer move.
+     */
+    public void testCapturesInOrder() {
+        Board board = new Board(CAPTURES);
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.addKiller(0, find(board, "e1e2"));
+        List<String> picked = pick(board, Move.NONE, ordering);
+        assertEquals(Arrays.asList("e4d5", "c3d5", "e4f5", "e1e2"), picked.subList(0, 4));//queen by pawn first
+        assertEveryMoveOnce(board, picked);
+
+        picked = pick(board, find(board, "c3d5"), ordering);
+        assertEquals(Arrays.asList("c3d5", "e4d5", "e4f5", "e1e2"), picked.subList(0, 4));
+        assertEveryMoveOnce(board, picked);
+
+        MovePicker tactical = new MovePicker();
+        tactical.initTactical(board, ordering);
+        assertEquals(3, drain(tactical).size());
+    }
+
+    @Test
+    /**
+     * Test that a hash move that isn't legal in the position, e.g. from another position with the same key, is
+     * skipped.
+     */
+    public void testIllegalHashMove() {
+        Board board = new Board(CAPTURES);
+        int g1f3 = find(new Board(), "g1f3");
+        List<String> picked = pick(board, g1f3, new MoveOrdering());
+        assertFalse(picked.contains("g1f3"));
+        assertEquals(Arrays.asList("e4d5", "c3d5", "e4f5"), picked.subList(0, 3));
+        assertEveryMoveOnce(board, picked);
+    }
+
+    /**
+     * Hand out every move of a position.
+     * @param board The position.
+     * @param hashMove The move to try first, or Move.NONE.
+     * @param ordering The killer and history tables.
+     * @return The moves in the order they came.
+     */
+    private static List<String> pick(Board board, int hashMove, MoveOrdering ordering) {
+        MovePicker picker = new MovePicker();
+        picker.init(board, hashMove, 0, ordering);
+        return drain(picker);
+    }
+
+    /**
+     * Take every move a MovePicker has left.
+     * @param picker The picker.
+     * @return The moves in the order they came.
+     */
+    private static List<String> drain(MovePicker picker) {
+        List<String> picked = new ArrayList<String>();
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            picked.add(Move.toString(move));
+        }
+        return picked;
+    }
+
+    /**
+     * Check that moves handed out are exactly the legal moves of a position, each once.
+     * @param board The position.
+     * @param picked The moves handed out.
+     */
+    private static void assertEveryMoveOnce(Board board, List<String> picked) {
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        List<String> legal = new ArrayList<String>();
+        for (int i = 0; i < moves.size(); i++) {
+            legal.add(Move.toString(moves.get(i)));
+        }
+        List<String> sorted = new ArrayList<String>(picked);
+        Collections.sort(legal);
+        Collections.sort(sorted);
+        assertEquals(legal, sorted);
+    }
+
+    /**
+     * Find a legal move of a position.
+     * @param board The position.
+     * @param name The move, e.g. "e2e4".
+     * @return The packed move.
+     */
+    private static int find(Board board, String name) {
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals(name)) {
+                return moves.get(i);
+            }
+        }
+        throw new AssertionError(name + " isn't legal");
+    }
+}
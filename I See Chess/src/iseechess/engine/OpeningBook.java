@@ -0,0 +1,232 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import iseechess.Piece;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+/**
+ * An opening book in the Polyglot .bin format, the most common format for opening books, which the engine and the
+ * hint button can play moves from instantly.
+ *
+ * A Polyglot book is a list of 16 byte entries sorted by position key: the key (8 bytes), the move (2 bytes), a weight
+ * for how often the move should be played (2 bytes) and 4 bytes the book's author may use for learning, all
+ * big-endian. A position with several book moves has several entries in a row.
+ *
+ * The file is memory-mapped rather than read, so even a book of hundreds of megabytes takes no Java heap and opens at
+ * once: the operating system pages in the few parts of the file a lookup touches. A lookup is a binary search on the
+ * key, about 25 steps for a book of 100 MB, so it takes microseconds.
+ *
+ * The keys are Polyglot's own, which are computed like a Zobrist key but with Polyglot's fixed random numbers (see
+ * PolyglotRandom), so they have nothing to do with Board.getZobristKey(). key() works them out from a Board.
+ *
+ * Lookups only read the mapped file, so any number of threads may use one book.
+ */
+public class OpeningBook implements Closeable {
+    private static final int ENTRY_BYTES = 16;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer entries;
+    private final int count;
+
+    /**
+     * Open a Polyglot book.
+     * @param path The .bin file.
+     * @throws IOException If the file can't be opened, or is too big to map (2 GB or more).
+     */
+    public OpeningBook(File path) throws IOException {
+        file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Opening book too large: " + path);
+            }
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());//big-endian, as Polyglot is
+            count = (int) (channel.size() / ENTRY_BYTES);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of entries in the book.
+     * @return The number of entries, one per position and move.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Compute the Polyglot key of a position.
+     * @param board The position.
+     * @return The key the book uses for the position.
+     */
+    public static long key(Board board) {
+        long key = 0;
+        for (Piece piece : Piece.values()) {
+            int kind = piece.ordinal() ^ 1;//Polyglot puts black before white, Piece puts white first
+            long remaining = board.getBitboard(piece);
+            while (remaining != 0) {
+                key ^= PolyglotRandom.RANDOM64[64 * kind + Long.numberOfTrailingZeros(remaining)];
+                remaining &= remaining - 1;
+            }
+        }
+        boolean[] colours = {true, false};
+        for (int c = 0; c < 2; c++) {
+            if (board.canCastle(colours[c], true)) {
+                key ^= PolyglotRandom.RANDOM64[768 + 2 * c];
+            }
+            if (board.canCastle(colours[c], false)) {
+                key ^= PolyglotRandom.RANDOM64[769 + 2 * c];
+            }
+        }
+        //Polyglot only counts the en passant square when a pawn can capture onto it, and so does Board
+        if (board.getEnPassantSquare() >= 0) {
+            key ^= PolyglotRandom.RANDOM64[772 + (board.getEnPassantSquare() & 7)];
+        }
+        if (board.getIsWhitesTurn()) {
+            key ^= PolyglotRandom.RANDOM64[780];
+        }
+        return key;
+    }
+
+    /**
+     * Get the book move with the highest weight, e.g. to show as a hint.
+     * @param board The position.
+     * @return The packed move, or Move.NONE if the position is not in the book.
+     */
+    public int getBestMove(Board board) {
+        long key = key(board);
+        int best = Move.NONE, bestWeight = -1;
+        MoveList legal = legalMoves(board);
+        for (int index = find(key); index >= 0 && index < count && keyAt(index) == key; index++) {
+            int move = toMove(board, legal, entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF);
+            int weight = entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+            if (move != Move.NONE && weight > bestWeight) {
+                best = move;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Choose a book move at random, each in proportion to its weight, so that the engine doesn't always play the same
+     * opening. Moves with a weight of 0 are never chosen.
+     * @param board The position.
+     * @param random The random number generator to choose with.
+     * @return The packed move, or Move.NONE if the position is not in the book.
+     */
+    public int getMove(Board board, Random random) {
+        long key = key(board);
+        int first = find(key);
+        if (first < 0) {
+            return Move.NONE;
+        }
+        MoveList legal = legalMoves(board);
+        int total = 0;
+        for (int index = first; index < count && keyAt(index) == key; index++) {
+            if (toMove(board, legal, entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF) != Move.NONE) {
+                total += entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+            }
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        int chosen = random.nextInt(total);
+        for (int index = first; index < count && keyAt(index) == key; index++) {
+            int move = toMove(board, legal, entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF);
+            if (move != Move.NONE) {
+                chosen -= entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+                if (chosen < 0) {
+                    return move;
+                }
+            }
+        }
+        throw new InternalError(); //shouldn't happen, the weights add up to total
+    }
+
+    /**
+     * Close the file. The mapping itself lasts until the book is garbage collected, since Java has no portable way
+     * to unmap a file.
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Find the first entry of a position by binary search. Polyglot sorts keys as unsigned numbers.
+     * @param key The Polyglot key of the position.
+     * @return The index of the first entry with that key, or -1 if there is none.
+     */
+    private int find(long key) {
+        int low = 0, high = count;//the first entry with a key at least key is in [low, high]
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < count && keyAt(low) == key ? low : -1;
+    }
+
+    /**
+     * Read the key of an entry.
+     * @param index The index of the entry.
+     * @return The key.
+     */
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    /**
+     * Generate the legal moves of a position, to turn book moves into packed moves with.
+     * @param board The position.
+     * @return The legal moves.
+     */
+    private static MoveList legalMoves(Board board) {
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Turn a Polyglot move into the matching legal move. Polyglot packs the target column and row into bits 0-5, the
+     * starting column and row into bits 6-11 and the promotion piece into bits 12-14 (1 knight to 4 queen), and writes
+     * castling as the king taking its own rook.
+     * @param board The position.
+     * @param legal The legal moves of the position.
+     * @param bookMove The Polyglot move.
+     * @return The packed move, or Move.NONE if it isn't legal here, e.g. because of a key collision.
+     */
+    private static int toMove(Board board, MoveList legal, int bookMove) {
+        int to = bookMove & 63, from = (bookMove >>> 6) & 63, promotion = (bookMove >>> 12) & 7;
+        Piece moving = board.getPiece(from);
+        if ((moving == Piece.WhiteKing && from == 4 && (to == 7 || to == 0)) ||
+                (moving == Piece.BlackKing && from == 60 && (to == 63 || to == 56))) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            Piece promotedTo = Move.promotion(move);
+            if (Move.from(move) == from && Move.to(move) == to &&
+                    (promotedTo == null ? 0 : promotedTo.ordinal() / 2) == promotion) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+}
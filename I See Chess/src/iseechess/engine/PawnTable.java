@@ -0,0 +1,158 @@
+package iseechess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Caches the pawn structure terms of the evaluation, keyed by the pawn key of the position (see Board.getPawnKey()):
+ * doubled pawns, isolated pawns (no pawns of the same colour on the files beside them) and passed pawns (no enemy
+ * pawns ahead of them on their own file or the files beside them, so nothing but pieces can stop them).
+ *
+ * These terms take a loop over every pawn, but pawns move far less often than pieces, so most positions in a search
+ * share their pawn structure with many others and the terms are looked up instead of computed again. The table has a
+ * fixed number of entries, one per pawn key modulo its size, and a new pawn structure simply overwrites whatever was
+ * in its entry.
+ *
+ * Each search thread has its own PawnTable, so entries are plain arrays that are never locked. A score is packed into
+ * one int holding a middlegame and an endgame part, read with middlegame() and endgame().
+ */
+final class PawnTable {
+    static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private static final int DOUBLED_MIDDLEGAME = -10, DOUBLED_ENDGAME = -20; //for each pawn behind another of its colour on its file
+    private static final int ISOLATED_MIDDLEGAME = -10, ISOLATED_ENDGAME = -15;
+
+    /**
+     * The bonus for a passed pawn, indexed by the number of ranks it has advanced from its own side's back rank.
+     * A passed pawn is worth most in the endgame, when there are few pieces left to stop it.
+     */
+    private static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 15, 25, 40, 60, 0}, PASSED_ENDGAME = {0, 10, 20, 35, 60, 90, 130, 0};
+
+    private static final long[] FILES = new long[8], ADJACENT_FILES = new long[8];
+
+    /**
+     * The squares ahead of a pawn on its own and the adjacent files, indexed by colour (0 for white) and square.
+     */
+    private static final long[][] PASSED_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = 0x0101010101010101L << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            long span = FILES[square & 7] | ADJACENT_FILES[square & 7];
+            int rank = square >>> 3;
+            PASSED_MASKS[0][square] = rank < 7 ? span & (-1L << (rank + 1) * 8) : 0;
+            PASSED_MASKS[1][square] = rank > 0 ? span & (-1L >>> (8 - rank) * 8) : 0;
+        }
+    }
+
+    private final long[] keys;
+    private final int[] scores;
+    private final int mask;
+
+    /**
+     * Make a table with a fixed number of entries.
+     * @param entries The number of entries, rounded down to a power of two.
+     */
+    PawnTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        scores = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Get the pawn structure score of a position, computing it only if the table doesn't have it.
+     * An empty entry has the key 0 and the score 0, which is also the right answer for the only pawn structure with
+     * the key 0, that of no pawns at all, so empty entries need no flag.
+     * @param pawnKey The pawn key of the position.
+     * @param whitePawns The bitboard of the white pawns.
+     * @param blackPawns The bitboard of the black pawns.
+     * @return The packed score from white's point of view.
+     */
+    int probe(long pawnKey, long whitePawns, long blackPawns) {
+        int index = (int) pawnKey & mask;
+        if (keys[index] != pawnKey) {
+            keys[index] = pawnKey;
+            scores[index] = compute(whitePawns, blackPawns);
+        }
+        return scores[index];
+    }
+
+    /**
+     * Forget every pawn structure, e.g. when a new game starts.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(scores, 0);
+    }
+
+    /**
+     * Work out the pawn structure score of a position from scratch.
+     * @param whitePawns The bitboard of the white pawns.
+     * @param blackPawns The bitboard of the black pawns.
+     * @return The packed score from white's point of view.
+     */
+    static int compute(long whitePawns, long blackPawns) {
+        int middlegame = 0, endgame = 0;
+        for (int c = 0; c < 2; c++) {
+            long own = c == 0 ? whitePawns : blackPawns, enemy = c == 0 ? blackPawns : whitePawns;
+            int sign = c == 0 ? 1 : -1;
+            for (int file = 0; file < 8; file++) {
+                int count = Long.bitCount(own & FILES[file]);
+                if (count > 1) {
+                    middlegame += sign * DOUBLED_MIDDLEGAME * (count - 1);
+                    endgame += sign * DOUBLED_ENDGAME * (count - 1);
+                }
+            }
+            long remaining = own;
+            while (remaining != 0) {
+                int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                int file = square & 7;
+                if ((own & ADJACENT_FILES[file]) == 0) {
+                    middlegame += sign * ISOLATED_MIDDLEGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                }
+                //a pawn behind another of its own colour isn't counted as passed, the one in front is
+                if ((enemy & PASSED_MASKS[c][square]) == 0 && (own & FILES[file] & PASSED_MASKS[c][square]) == 0) {
+                    int advanced = c == 0 ? square >>> 3 : 7 - (square >>> 3);
+                    middlegame += sign * PASSED_MIDDLEGAME[advanced];
+                    endgame += sign * PASSED_ENDGAME[advanced];
+                }
+            }
+        }
+        return pack(middlegame, endgame);
+    }
+
+    /**
+     * Pack a middlegame and an endgame score into one int.
+     * @param middlegame The middlegame score.
+     * @param endgame The endgame score, between -32768 and 32767.
+     * @return The packed score.
+     */
+    static int pack(int middlegame, int endgame) {
+        return (middlegame << 16) + endgame;
+    }
+
+    /**
+     * Get the middlegame part of a packed score.
+     * @param score The packed score.
+     * @return The middlegame score.
+     */
+    static int middlegame(int score) {
+        return (score - endgame(score)) >> 16;
+    }
+
+    /**
+     * Get the endgame part of a packed score.
+     * @param score The packed score.
+     * @return The endgame score.
+     */
+    static int endgame(int score) {
+        return (short) score;
+    }
+}
@@ -0,0 +1,359 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.Piece;
+
+import java.util.Arrays;
+
+/**
+ * One search of one position: a negamax alpha-beta search, repeated at increasing depths (iterative deepening) until
+ * a time or node limit is reached. Each iteration starts with a narrow window around the previous score (an
+ * aspiration window), which prunes far more, and searches again with a wider window if the score falls outside it.
+ * At the end of each line a quiescence search plays out the captures, so that a position isn't judged in the middle
+ * of an exchange.
+ *
+ * A Search works on its own copy of the board and plays moves on it with makeMove() and unmakeMove(), so nothing
+ * is allocated per node. What it learns about each position goes into a TranspositionTable, which can be shared
+ * with other searches. Only stop() may be called from another thread.
+ *
+ * Several Searches of the same position can run on different threads and share one table ("lazy SMP"): each one
+ * finds entries the others have stored and skips that work, so together they reach a given depth sooner. The helper
+ * searches (every one but the first) start one ply deeper every other thread, so that they don't all search the
+ * same positions in the same order, and they stop at once when asked to, since only the first search's move is played.
+ *
+ * Given endgame tablebases, a position they cover is scored by them instead of searched, so the search steers towards
+ * won endgames and away from lost ones that are still many moves away.
+ */
+class Search {
+    static final int MATE = 32000, INFINITY = 32001, MAX_PLY = 64;
+    static final int MATE_BOUND = MATE - MAX_PLY - Tablebase.MAX_MATE_PLIES; //a tablebase mate found at the deepest ply
+    private static final int ASPIRATION_WINDOW = 25;
+    private static final int CHECK_EVERY = 1023; //the clock and node limit are checked every 1024 nodes
+    private static final int DELTA_MARGIN = 200; //how much the position itself might gain besides the captured material
+
+    private final Board board;
+    private final TranspositionTable table;
+    private final int id;
+    private final MoveOrdering ordering;
+    private final PawnTable pawns;
+    private final Tablebases tablebases;
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1]; //pv[ply] is the best line found from ply onwards
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[] probeOrdinals = new int[Tablebase.MAX_PIECES], probeSquares = new int[Tablebase.MAX_PIECES];
+    private long nodes, nodeLimit, deadline;
+    private int completedDepth, rootBest;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    /**
+     * Constructor for a Search.
+     * @param board The position to search. The Search keeps and plays moves on this Board, so pass a copy.
+     * @param table The transposition table to use.
+     * @param id 0 for the main search, whose result is played, or the number of a helper search.
+     * @param ordering The killer and history tables of the thread the search runs on.
+     * @param pawns The pawn table of the thread the search runs on.
+     * @param tablebases The endgame tablebases to score positions with few pieces, or null for none.
+     */
+    Search(Board board, TranspositionTable table, int id, MoveOrdering ordering, PawnTable pawns, Tablebases tablebases) {
+        this.board = board;
+        this.table = table;
+        this.id = id;
+        this.ordering = ordering;
+        this.pawns = pawns;
+        this.tablebases = tablebases;
+        for (int i = 0; i < pickers.length; i++) {
+            pickers[i] = new MovePicker();
+        }
+    }
+
+    /**
+     * Search the position until a limit is reached or stop() is called. The first iteration of the main search
+     * always completes, so there is always a move to play.
+     * @param millis The time limit in milliseconds, or 0 for none.
+     * @param maxNodes The node limit, or 0 for none.
+     * @param maxDepth The deepest iteration to search, at most MAX_PLY.
+     * @return The result of the last completed iteration.
+     */
+    SearchResult run(long millis, long maxNodes, int maxDepth) {
+        long start = System.nanoTime();
+        deadline = millis > 0 ? start + millis * 1000000 : Long.MAX_VALUE;
+        nodeLimit = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        nodes = 0;
+        completedDepth = 0;
+        aborted = false;
+        rootBest = Move.NONE;
+        int score = 0;
+        int[] bestLine = new int[0];
+        for (int depth = 1 + id % 2; depth <= Math.min(maxDepth, MAX_PLY) && !aborted; depth++) {
+            int delta = ASPIRATION_WINDOW;
+            int alpha = depth > 1 ? score - delta : -INFINITY, beta = depth > 1 ? score + delta : INFINITY;
+            while (true) {
+                int result = negamax(depth, 0, alpha, beta);
+                if (aborted) {
+                    break;
+                }
+                if (result <= alpha) {//failed low, widen downwards and search again
+                    alpha = Math.max(result - delta, -INFINITY);
+                } else if (result >= beta) {//failed high, widen upwards
+                    beta = Math.min(result + delta, INFINITY);
+                } else {
+                    score = result;
+                    break;
+                }
+                delta *= 2;
+                if (delta > 1000) {
+                    alpha = -INFINITY;
+                    beta = INFINITY;
+                }
+            }
+            if (!aborted) {
+                completedDepth = depth;
+                bestLine = Arrays.copyOf(pv[0], pvLength[0]);
+                rootBest = bestLine.length > 0 ? bestLine[0] : Move.NONE;
+                if (Math.abs(score) >= MATE_BOUND) {//a forced mate was found, searching deeper won't change it
+                    break;
+                }
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        return new SearchResult(bestLine.length > 0 ? bestLine[0] : Move.NONE, score, completedDepth, nodes, elapsed, bestLine);
+    }
+
+    /**
+     * Ask a running search to stop as soon as possible. It returns the result of the last completed iteration.
+     */
+    void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Get the number of positions searched so far. Only meaningful once run() has returned.
+     * @return The node count.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Search a position to a fixed depth with the alpha-beta algorithm, in negamax form: every score is from the point
+     * of view of the player to move, so each side maximizes the negation of the other's score.
+     * @param depth The number of plies left to search.
+     * @param ply The distance from the root.
+     * @param alpha The score the player to move is already sure of.
+     * @param beta The score the opponent is already sure of; anything at or above it is cut off.
+     * @return The score of the position, or 0 if the search was aborted.
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (ply > 0 && (board.getHalfmoveClock() >= 100 || board.getRepetitionCount() >= 2)) {
+            return 0;//a repeated position is a draw, since whoever can repeat it can keep doing so
+        }
+        if (ply > 0 && tablebases != null && Long.bitCount(board.getOccupied()) <= tablebases.getMaxPieces()) {
+            int result = tablebases.probe(board, probeOrdinals, probeSquares);
+            if (result != Tablebases.UNKNOWN) {
+                return tablebaseScore(result, ply);
+            }
+        }
+        boolean inCheck = board.isInCheck(board.getIsWhitesTurn());
+        if (inCheck && ply < MAX_PLY / 2) {
+            depth++;//look further when in check, so that mates and lost pieces at the horizon are seen
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        long key = board.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            int hashScore = fromTable(TranspositionTable.score(entry), ply), bound = TranspositionTable.bound(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth && (bound == TranspositionTable.EXACT ||
+                    (bound == TranspositionTable.LOWER && hashScore >= beta) || (bound == TranspositionTable.UPPER && hashScore <= alpha))) {
+                return hashScore;
+            }
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(board, pawns);
+        }
+        MovePicker picker = pickers[ply];
+        picker.init(board, ply == 0 && rootBest != Move.NONE ? rootBest : hashMove, ply, ordering);
+        if (picker.size() == 0) {
+            return inCheck ? -MATE + ply : 0;//mated sooner is worse, so the engine mates as fast as it can
+        }
+        int best = -INFINITY, bestMove = Move.NONE, originalAlpha = alpha;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            int piece = board.getPiece(Move.from(move)).ordinal();
+            board.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    pv[ply][0] = move;
+                    System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+                    pvLength[ply] = pvLength[ply + 1] + 1;
+                    if (score >= beta) {
+                        if (!MovePicker.isTactical(move)) {
+                            ordering.addKiller(ply, move);
+                            ordering.addHistory(piece, Move.to(move), depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Search only the captures and queen promotions of a position, until it is quiet enough for the static evaluation
+     * to be trusted. The player to move may also "stand pat", i.e. decline to capture and take the evaluation, since
+     * there is usually a quiet move at least as good. Captures that can't matter are skipped:
+     *
+     * Delta pruning skips a capture when even the captured material and a margin for positional gains wouldn't lift
+     * the score to alpha, e.g. taking a pawn when a rook down.
+     * SEE pruning skips a capture that loses material once the recaptures are played out, e.g. a queen taking a
+     * defended pawn, see Board.staticExchange(). Most captures in a search are like that, so this saves the most.
+     *
+     * In check there is no standing pat and no pruning: every evasion is searched, so that mates are still found.
+     * Results aren't stored in the transposition table, but a position the main search has stored is answered from it.
+     * @param ply The distance from the root.
+     * @param alpha The score the player to move is already sure of.
+     * @param beta The score the opponent is already sure of.
+     * @return The score of the position, or 0 if the search was aborted.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (countNode()) {
+            return 0;
+        }
+        long entry = table.probe(board.getZobristKey());
+        if (entry != 0) {//anything in the table was searched at least as deep as this
+            int hashScore = fromTable(TranspositionTable.score(entry), ply), bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && hashScore >= beta) ||
+                    (bound == TranspositionTable.UPPER && hashScore <= alpha)) {
+                return hashScore;
+            }
+        }
+        boolean inCheck = board.isInCheck(board.getIsWhitesTurn());
+        if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(board, pawns);
+        }
+        MovePicker picker = pickers[ply];
+        int best = -INFINITY, standPat = 0;
+        if (inCheck) {
+            picker.init(board, Move.NONE, ply, ordering);
+            if (picker.size() == 0) {
+                return -MATE + ply;
+            }
+        } else {
+            standPat = Evaluator.evaluate(board, pawns);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            best = standPat;
+            alpha = Math.max(alpha, standPat);
+            picker.initTactical(board, ordering);
+        }
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            if (!inCheck) {
+                int from = Move.from(move), to = Move.to(move);
+                Piece victim = Move.is(move, Move.EN_PASSANT) ? Piece.WhitePawn : board.getPiece(to);
+                int gain = victim == null ? 0 : victim.getValue();
+                if (Move.promotion(move) != null) {
+                    gain += Piece.WhiteQueen.getValue() - Piece.WhitePawn.getValue();
+                }
+                if (standPat + gain + DELTA_MARGIN <= alpha || board.staticExchange(from, to) < 0) {
+                    continue;
+                }
+            }
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    pv[ply][0] = move;
+                    System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+                    pvLength[ply] = pvLength[ply + 1] + 1;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Count a node and check whether stop() was called, and every 1024 nodes check the other limits too: reading the
+     * clock costs far more than reading a volatile flag, but a stop should take effect at once, e.g. for UCI's "stop".
+     * The first iteration of the main search is never stopped.
+     * @return true if the search has been aborted and should return at once.
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((completedDepth > 0 || id > 0) && (stopRequested || (nodes & CHECK_EVERY) == 0 && outOfTime())) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * Turn a tablebase result into a score, like the score of a mate found by searching.
+     * @param result The result from Tablebases.probe(), which mustn't be UNKNOWN.
+     * @param ply The distance from the root.
+     * @return The score from the point of view of the player to move.
+     */
+    static int tablebaseScore(int result, int ply) {
+        if (result == Tablebases.DRAW) {
+            return 0;
+        }
+        return result % 2 == 1 ? MATE - ply - result : -MATE + ply + result;//odd: the player to move mates
+    }
+
+    /**
+     * Convert a score to store in the transposition table. Mate scores, tablebase ones included, count plies from the
+     * root, but the same position can be reached at any ply, so in the table they count plies from the position itself.
+     * @param score The score as the search sees it.
+     * @param ply The distance from the root.
+     * @return The score to store.
+     */
+    static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    /**
+     * Convert a score from the transposition table back to one the search can use, see toTable().
+     * @param score The stored score.
+     * @param ply The distance from the root.
+     * @return The score as the search sees it.
+     */
+    static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+
+    /**
+     * Check whether the search has run out of time or nodes, or has been asked to stop.
+     * @return true if it should stop.
+     */
+    private boolean outOfTime() {
+        return stopRequested || nodes >= nodeLimit || System.nanoTime() >= deadline;
+    }
+}
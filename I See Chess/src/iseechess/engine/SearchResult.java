@@ -0,0 +1,111 @@
+package iseechess.engine;
+
+import iseechess.Move;
+
+/**
+ * What a search found: the best move, its score, and the principal variation, i.e. the line of play both sides are
+ * expected to follow from the position. Moves are packed ints, see the Move class.
+ */
+public class SearchResult {
+    private final int bestMove, score, depth;
+    private final long nodes, millis;
+    private final int[] principalVariation;
+
+    /**
+     * Constructor for a SearchResult.
+     * @param bestMove The best move found, or Move.NONE if the position has no legal moves.
+     * @param score The score of the best move in centipawns, from the point of view of the player to move.
+     * @param depth The depth of the last completed iteration.
+     * @param nodes The number of positions searched.
+     * @param millis The time the search took in milliseconds.
+     * @param principalVariation The expected line of play, starting with the best move.
+     */
+    SearchResult(int bestMove, int score, int depth, long nodes, long millis, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Get the best move found.
+     * @return The packed move, or Move.NONE if the position has no legal moves.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Get the score of the best move, from the point of view of the player to move.
+     * @return The score in centipawns. Scores beyond Search.MATE_BOUND mean a forced mate, see isMate().
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Check whether the score is a forced mate for one side or the other, found by searching or in the tablebases.
+     * @return true if the score is a mate score.
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE_BOUND;
+    }
+
+    /**
+     * Get the number of moves until the forced mate that the score stands for, the way UCI reports it.
+     * @return The number of moves (not plies), negative if the player to move gets mated, or 0 if the score isn't a
+     *         mate score.
+     */
+    public int getMateMoves() {
+        if (!isMate()) {
+            return 0;
+        }
+        return score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2;
+    }
+
+    /**
+     * Get the depth of the last iteration the search completed.
+     * @return The depth in plies (moves by one side).
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Get the number of positions searched.
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the time the search took.
+     * @return The time in milliseconds.
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Get the principal variation, the line of play the search expects.
+     * @return The packed moves, starting with the best move. The array is a copy.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    @Override
+    /**
+     * Describe the result, e.g. "depth 6 score 35 nodes 120000 time 150 pv e2e4 e7e5 g1f3".
+     */
+    public String toString() {
+        StringBuilder text = new StringBuilder("depth " + depth + " score " + score + " nodes " + nodes + " time " + millis + " pv");
+        for (int move : principalVariation) {
+            text.append(' ').append(Move.toString(move));
+        }
+        return text.toString();
+    }
+}
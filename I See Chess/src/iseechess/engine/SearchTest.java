@@ -0,0 +1,46 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the scores Search gives, which are private to the engine, so they can't go in ISeeChessTest with the rest.
+ */
+public class SearchTest {
+    @Test
+    /**
+     * Test that a long tablebase mate, reached deep in the search, still scores as a mate: it is reported as one, and
+     * keeps its distance to mate through the transposition table.
+     */
+    public void testDeepTablebaseMate() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(1);
+        generator.generate("KRK");
+        File directory = File.createTempFile("tablebases", "");
+        assertTrue(directory.delete());
+        generator.write(directory);
+        generator.shutdown();
+        Tablebases tablebases = new Tablebases(directory);
+        try {
+            int plies = tablebases.probe(new Board("8/8/3k4/8/8/8/8/R3K3 w - - 0 1"));
+            assertTrue(plies % 2 == 1 && plies > 10);
+            int ply = Search.MAX_PLY - 4;//the probe is made this deep, so the mate is more than MAX_PLY from the root
+            int score = Search.tablebaseScore(plies, ply);
+            SearchResult result = new SearchResult(Move.NONE, score, ply, 0, 0, new int[0]);
+            assertTrue(result.isMate());
+            assertEquals((ply + plies + 1) / 2, result.getMateMoves());
+            assertTrue(new SearchResult(Move.NONE, -score, ply, 0, 0, new int[0]).isMate());
+
+            //the same position reached 50 plies nearer the root is a mate 50 plies sooner
+            assertEquals(score + 50, Search.fromTable(Search.toTable(score, ply), ply - 50));
+            assertEquals(-score - 50, Search.fromTable(Search.toTable(-score, ply), ply - 50));
+            int longest = Search.tablebaseScore(Tablebase.MAX_MATE_PLIES, Search.MAX_PLY);//the longest that can be stored
+            assertTrue(new SearchResult(Move.NONE, longest, ply, 0, 0, new int[0]).isMate());
+        } finally {
+            tablebases.close();
+        }
+    }
+}
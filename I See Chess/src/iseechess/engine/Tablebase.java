@@ -0,0 +1,284 @@
+package iseechess.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * One endgame tablebase file: the result of every position with one set of material, e.g. king and queen against
+ * king, written by TablebaseGenerator and read by Tablebases. This class knows the file format and how positions are
+ * numbered; Tablebases finds the right file for a Board.
+ *
+ * The material is named by its signature, "K" and the white pieces, then "K" and the black pieces, strongest first,
+ * e.g. "KQK" or "KBNK". Only one of the two colourings of a material is stored, the one where white is at least as
+ * strong; a position where black is stronger is looked up with the colours swapped and the board mirrored, see
+ * isFlipped().
+ *
+ * A position is numbered by the side to move and the square of each piece, in the order of the signature's kinds
+ * (see getKinds()): index = ((side * 64 + square0) * 64 + square1) * 64 + ... where side is 0 if white is to move.
+ * Two identical pieces are stored twice, once in each order, which wastes space but keeps the numbering simple.
+ * Positions with castling rights or an en passant square aren't covered.
+ *
+ * Each entry is a small number: DRAW, ILLEGAL, or 2 + the number of plies until mate with best play by both sides. An
+ * odd number of plies means the player to move mates, an even number that the player to move gets mated, so one number
+ * holds both the win/draw/loss result and the distance to mate. The file stores the entries bit-packed, with as few
+ * bits each as the longest mate needs (5 bits for KQK), after a 16 byte header:
+ *
+ *     magic "ISTB" (4 bytes), version (2 bytes), number of pieces (1 byte), bits per entry (1 byte), the ordinal of
+ *     each piece's kind, padded with 0xFF (8 bytes)
+ *
+ * Entry i is in the bits i * bits to (i + 1) * bits - 1 of the data, counting from the lowest bit of each byte. The file
+ * is memory-mapped, so only the pages that are probed are ever read.
+ */
+final class Tablebase implements Closeable {
+    static final int MAX_PIECES = 4; //kings included; five pieces would need 2 * 64^5 entries, more than an array holds
+    static final int DRAW = 0, ILLEGAL = 1, PLIES = 2; //an entry of PLIES + n means mate in n plies
+    static final int MAX_MATE_PLIES = 255 - PLIES; //the generator keeps its entries in bytes
+    static final String LETTERS = "PNBRQK"; //by piece type, i.e. ordinal / 2
+    private static final int MAGIC = 0x49535442, VERSION = 1, HEADER_BYTES = 16;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer data;
+    private final long materialKey;
+    private final int[] kinds;
+    private final int bits, mask;
+
+    /**
+     * Open a tablebase file.
+     * @param path The file, as written by write().
+     * @throws IOException If the file can't be read or isn't a tablebase.
+     */
+    Tablebase(File path) throws IOException {
+        file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int pieces = data.get(6);
+            bits = data.get(7);
+            if (data.getInt(0) != MAGIC || data.getShort(4) != VERSION || pieces < 2 || pieces > MAX_PIECES ||
+                    bits < 1 || bits > 8 || channel.size() < HEADER_BYTES + ((long) size(pieces) * bits + 7) / 8 + 1) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            kinds = new int[pieces];
+            for (int i = 0; i < pieces; i++) {
+                kinds[i] = data.get(8 + i);
+            }
+            materialKey = materialKey(kinds, pieces, false);
+            mask = (1 << bits) - 1;
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the material the tablebase covers.
+     * @return The material key, see materialKey().
+     */
+    long getMaterialKey() {
+        return materialKey;
+    }
+
+    /**
+     * Get the kind of piece each square of a position's index belongs to.
+     * @return The Piece ordinals, kings first.
+     */
+    int[] getKinds() {
+        return kinds;
+    }
+
+    /**
+     * Read one entry.
+     * @param index The position, see index().
+     * @return DRAW, ILLEGAL or PLIES + the number of plies until mate.
+     */
+    int get(int index) {
+        long bit = (long) index * bits;
+        int offset = HEADER_BYTES + (int) (bit >>> 3);
+        int twoBytes = (data.get(offset) & 0xFF) | (data.get(offset + 1) & 0xFF) << 8;//a file ends with a spare byte
+        return (twoBytes >>> (int) (bit & 7)) & mask;
+    }
+
+    /**
+     * Close the file.
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Write a tablebase file.
+     * @param path The file to write.
+     * @param kinds The kind of each piece, see getKinds().
+     * @param entries Every entry, by index.
+     * @throws IOException If the file can't be written.
+     */
+    static void write(File path, int[] kinds, byte[] entries) throws IOException {
+        int largest = 1;
+        for (byte entry : entries) {
+            largest = Math.max(largest, entry & 0xFF);
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(largest);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(kinds.length);
+            out.writeByte(bits);
+            for (int i = 0; i < 8; i++) {
+                out.writeByte(i < kinds.length ? kinds[i] : 0xFF);
+            }
+            int buffer = 0, buffered = 0;
+            for (byte entry : entries) {
+                buffer |= (entry & 0xFF) << buffered;
+                buffered += bits;
+                while (buffered >= 8) {
+                    out.writeByte(buffer);
+                    buffer >>>= 8;
+                    buffered -= 8;
+                }
+            }
+            if (buffered > 0) {
+                out.writeByte(buffer);
+            }
+            out.writeByte(0);//so that get() can always read two bytes
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Get the number of entries of a tablebase.
+     * @param pieces The number of pieces, kings included.
+     * @return 2 * 64^pieces.
+     */
+    static int size(int pieces) {
+        return 2 << 6 * pieces;
+    }
+
+    /**
+     * Decide whether a position must be looked up with the colours swapped, which is when black's pieces are stronger
+     * than white's: more of them, or as many but stronger ones, comparing the strongest first.
+     * @param ordinals The Piece ordinal of each piece.
+     * @param count The number of pieces.
+     * @return true if the colours must be swapped.
+     */
+    static boolean isFlipped(int[] ordinals, int count) {
+        return strength(ordinals, count, 1) > strength(ordinals, count, 0);
+    }
+
+    /**
+     * Rate the pieces of one colour, so that stronger sets of pieces get higher numbers.
+     * @param ordinals The Piece ordinal of each piece.
+     * @param count The number of pieces.
+     * @param colour 0 for white, 1 for black.
+     * @return The number of pieces in the highest digit, then the type of each piece from the strongest, in base 8.
+     */
+    private static int strength(int[] ordinals, int count, int colour) {
+        int pieces = 0, types = 0;
+        for (int type = 4; type >= 0; type--) {//queens first, kings don't count
+            for (int i = 0; i < count; i++) {
+                if (ordinals[i] == type * 2 + colour) {
+                    pieces++;
+                    types = types * 8 + type + 1;
+                }
+            }
+        }
+        return pieces << 24 | types << 3 * (MAX_PIECES - pieces);
+    }
+
+    /**
+     * Sum up the pieces of a position apart from the kings, which every position has.
+     * @param ordinals The Piece ordinal of each piece.
+     * @param count The number of pieces.
+     * @param flipped Whether to swap the colours, see isFlipped().
+     * @return The number of each kind of piece, four bits each, white pawns in the lowest bits.
+     */
+    static long materialKey(int[] ordinals, int count, boolean flipped) {
+        long key = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = flipped ? ordinals[i] ^ 1 : ordinals[i];
+            if (ordinal < 10) {
+                key += 1L << 4 * ordinal;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Get the kinds of piece of a material, in index order: the white king, the black king, then the white pieces
+     * from the strongest and the black pieces from the strongest.
+     * @param materialKey The material key.
+     * @return The Piece ordinals.
+     */
+    static int[] kinds(long materialKey) {
+        int pieces = 2;
+        for (int ordinal = 0; ordinal < 10; ordinal++) {
+            pieces += (int) (materialKey >>> 4 * ordinal & 15);
+        }
+        int[] kinds = new int[pieces];
+        kinds[0] = 10;
+        kinds[1] = 11;
+        int slot = 2;
+        for (int colour = 0; colour < 2; colour++) {
+            for (int type = 4; type >= 0; type--) {
+                for (int n = (int) (materialKey >>> 4 * (type * 2 + colour) & 15); n > 0; n--) {
+                    kinds[slot++] = type * 2 + colour;
+                }
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * Name a material.
+     * @param materialKey The material key.
+     * @return The signature, e.g. "KBNK".
+     */
+    static String signature(long materialKey) {
+        StringBuilder signature = new StringBuilder();
+        for (int colour = 0; colour < 2; colour++) {
+            signature.append('K');
+            for (int type = 4; type >= 0; type--) {
+                for (int n = (int) (materialKey >>> 4 * (type * 2 + colour) & 15); n > 0; n--) {
+                    signature.append(LETTERS.charAt(type));
+                }
+            }
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Number a position within its tablebase.
+     * @param kinds The kinds of the tablebase, see getKinds().
+     * @param ordinals The Piece ordinal of each piece of the position.
+     * @param squares The square of each piece, where a1 is 0 and h8 is 63.
+     * @param whiteToMove Whether white is to move.
+     * @param flipped Whether to swap the colours and mirror the board, see isFlipped().
+     * @return The index.
+     */
+    static int index(int[] kinds, int[] ordinals, int[] squares, boolean whiteToMove, boolean flipped) {
+        int index = whiteToMove != flipped ? 0 : 1, used = 0;
+        for (int kind : kinds) {
+            for (int i = 0; i < kinds.length; i++) {
+                if ((used & 1 << i) == 0 && (flipped ? ordinals[i] ^ 1 : ordinals[i]) == kind) {
+                    used |= 1 << i;
+                    index = index * 64 + (flipped ? squares[i] ^ 56 : squares[i]);
+                    break;
+                }
+            }
+        }
+        return index;
+    }
+}
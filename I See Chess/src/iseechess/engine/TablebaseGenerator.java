@@ -0,0 +1,574 @@
+package iseechess.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Makes endgame tablebases (see Tablebases) by retrograde analysis: working back from the checkmates, it finds every
+ * position that mates in 1 ply, then every position whose moves all lead to those (mated in 2 plies), then every
+ * position with a move to one of those (mates in 3 plies), and so on until nothing changes. What is left is a draw.
+ *
+ * Each round looks at every undecided position and its moves, and the positions of a round only depend on the
+ * results of earlier rounds, so a round is split into chunks that are worked on by many threads at once with no
+ * locking. Captures and promotions lead to positions with other material, so the tablebases for those are made
+ * first; making KPK also makes KQK, KRK, KBK, KNK and KK.
+ *
+ * The tablebases are held in memory as one byte per position while they are made, and then written bit-packed. Moves
+ * are generated on a plain list of squares rather than on a Board, since setting up a Board for each of millions of
+ * positions in every round would take far longer than the analysis itself. En passant captures and castling are left
+ * out, as Tablebases doesn't cover positions that have them.
+ *
+ * Run main() from the command line, e.g.
+ *     java -cp target/classes iseechess.engine.TablebaseGenerator tablebases KQK KRK KPK KBNK
+ * to write KQK.istb, KRK.istb and so on to the directory "tablebases" using one thread per processor.
+ */
+public class TablebaseGenerator {
+    private static final int CHUNK = 1 << 14; //positions per task
+    private static final int MAX_CHILDREN = 256;
+
+    private static final long[] KING_ATTACKS = new long[64], KNIGHT_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[] ROOK_LINES = new long[64], BISHOP_LINES = new long[64];
+    private static final long[][] BETWEEN = new long[64][64]; //the squares strictly between two squares on a line
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7, rank = square >>> 3;
+            for (int f = 0; f < 8; f++) {
+                for (int r = 0; r < 8; r++) {
+                    int df = Math.abs(f - file), dr = Math.abs(r - rank), target = r * 8 + f;
+                    if (Math.max(df, dr) == 1) {
+                        KING_ATTACKS[square] |= 1L << target;
+                    }
+                    if (df * dr == 2) {
+                        KNIGHT_ATTACKS[square] |= 1L << target;
+                    }
+                    if (target != square && (df == 0 || dr == 0)) {
+                        ROOK_LINES[square] |= 1L << target;
+                    }
+                    if (target != square && df == dr) {
+                        BISHOP_LINES[square] |= 1L << target;
+                    }
+                    if (dr == 1 && df == 1) {
+                        PAWN_ATTACKS[r > rank ? 0 : 1][square] |= 1L << target;
+                    }
+                    if (target != square && (df == 0 || dr == 0 || df == dr)) {
+                        int stepF = Integer.signum(f - file), stepR = Integer.signum(r - rank);
+                        for (int s = square + stepR * 8 + stepF; s != target; s += stepR * 8 + stepF) {
+                            BETWEEN[square][target] |= 1L << s;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One tablebase being made: a byte per position, see Tablebase for what it means.
+     */
+    private static final class Table {
+        final long materialKey;
+        final int[] kinds;
+        final byte[] entries;
+        int longest, longestMate; //the most plies of any result, and of any win for the player to move
+        boolean[] candidates, nextCandidates; //the positions to look at this round and the next, while it is made
+        boolean[] exits; //the positions with a capture or promotion, which lead to other tablebases
+
+        Table(long materialKey) {
+            this.materialKey = materialKey;
+            kinds = Tablebase.kinds(materialKey);
+            entries = new byte[Tablebase.size(kinds.length)];
+        }
+    }
+
+    private final ExecutorService pool;
+    private final Map<Long, Table> tables = new LinkedHashMap<Long, Table>(); //in the order they were made
+
+    /**
+     * Make a generator.
+     * @param threads The number of threads to work with, at least 1.
+     */
+    public TablebaseGenerator(int threads) {
+        pool = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "tablebase generator");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Make the tablebase for a material and every tablebase it depends on, unless they have already been made.
+     * @param signature The material, e.g. "KRK". The colours may be either way round and the pieces in any order.
+     * @throws IllegalArgumentException If the signature isn't valid or has more than four pieces.
+     */
+    public void generate(String signature) {
+        generate(materialKey(signature));
+    }
+
+    /**
+     * Write every tablebase made so far.
+     * @param directory The directory to write the .istb files to. It is made if it doesn't exist.
+     * @throws IOException If a file can't be written.
+     */
+    public void write(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't make directory: " + directory);
+        }
+        for (Table table : tables.values()) {
+            Tablebase.write(new File(directory, Tablebase.signature(table.materialKey) + Tablebases.EXTENSION),
+                    table.kinds, table.entries);
+        }
+    }
+
+    /**
+     * Get the longest forced mate of a material that has been made.
+     * @param signature The material, e.g. "KQK".
+     * @return The number of plies of the longest mate, counting from a position where the winning side is to move.
+     */
+    public int getLongestMate(String signature) {
+        Table table = tables.get(materialKey(signature));
+        if (table == null) {
+            throw new IllegalArgumentException("Not generated: " + signature);
+        }
+        return table.longestMate;
+    }
+
+    /**
+     * Stop the generator's threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Turn a signature into a material key.
+     * @param signature The material, e.g. "KRK".
+     * @return The material key with white the stronger side, see Tablebase.materialKey().
+     */
+    private static long materialKey(String signature) {
+        if (!signature.matches("K[QRBNP]*K[QRBNP]*") || signature.length() > Tablebase.MAX_PIECES) {
+            throw new IllegalArgumentException("Bad tablebase signature: " + signature);
+        }
+        int[] ordinals = new int[signature.length()];
+        int colour = -1;
+        for (int i = 0; i < ordinals.length; i++) {
+            if (signature.charAt(i) == 'K') {
+                colour++;
+            }
+            ordinals[i] = Tablebase.LETTERS.indexOf(signature.charAt(i)) * 2 + colour;
+        }
+        return Tablebase.materialKey(ordinals, ordinals.length, Tablebase.isFlipped(ordinals, ordinals.length));
+    }
+
+    /**
+     * Make the tablebase for a material after the ones it depends on.
+     * @param materialKey The material key, with white the stronger side.
+     */
+    private void generate(long materialKey) {
+        if (tables.containsKey(materialKey)) {
+            return;
+        }
+        int[] kinds = Tablebase.kinds(materialKey);
+        int longestBefore = 0;
+        for (int removed = 2; removed < kinds.length; removed++) {
+            int type = kinds[removed] / 2;
+            for (int becomes = -1; becomes < (type == 0 ? 4 : 0); becomes++) {//captured, or promoted to a N, B, R or Q
+                int[] ordinals = new int[becomes < 0 ? kinds.length - 1 : kinds.length];
+                for (int i = 0, j = 0; i < kinds.length; i++) {
+                    if (i != removed) {
+                        ordinals[j++] = kinds[i];
+                    } else if (becomes >= 0) {
+                        ordinals[j++] = (becomes + 1) * 2 + (kinds[i] & 1);
+                    }
+                }
+                long key = Tablebase.materialKey(ordinals, ordinals.length, Tablebase.isFlipped(ordinals, ordinals.length));
+                generate(key);
+                longestBefore = Math.max(longestBefore, tables.get(key).longest);
+            }
+        }
+        Table table = new Table(materialKey);
+        table.candidates = new boolean[table.entries.length];
+        table.nextCandidates = new boolean[table.entries.length];
+        table.exits = new boolean[table.entries.length];
+        runRound(table, 0, true);
+        int quietRounds = 0;
+        for (int plies = 1; quietRounds < 2 || plies <= longestBefore + 1; plies++) {
+            if (plies > 255 - Tablebase.PLIES) {
+                throw new IllegalStateException("Mate too long to store in " + Tablebase.signature(materialKey));
+            }
+            //a result from another tablebase may decide a position with a capture or promotion, so look at all of those
+            //until there are no more such results
+            quietRounds = runRound(table, plies, plies <= longestBefore + 1) == 0 ? quietRounds + 1 : 0;
+            boolean[] looked = table.candidates;
+            Arrays.fill(looked, false);
+            table.candidates = table.nextCandidates;
+            table.nextCandidates = looked;
+        }
+        table.candidates = table.nextCandidates = table.exits = null;
+        for (byte entry : table.entries) {
+            int plies = (entry & 0xFF) - Tablebase.PLIES;
+            table.longest = Math.max(table.longest, plies);
+            if (plies % 2 == 1) {
+                table.longestMate = Math.max(table.longestMate, plies);
+            }
+        }
+        tables.put(materialKey, table);
+    }
+
+    /**
+     * Run one round of the analysis on every thread.
+     * @param table The tablebase being made.
+     * @param plies 0 to mark illegal positions and checkmates, or the length of the mates to find this round.
+     * @param exits Whether to look at every position with a capture or promotion as well as the candidates.
+     * @return The number of positions decided.
+     */
+    private int runRound(final Table table, final int plies, final boolean exits) {
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int start = 0; start < table.entries.length; start += CHUNK) {
+            final int first = start, last = Math.min(table.entries.length, start + CHUNK);
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return new Worker(table).run(first, last, plies, exits);
+                }
+            });
+        }
+        int decided = 0;
+        try {
+            for (Future<Integer> result : pool.invokeAll(tasks)) {
+                decided += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return decided;
+    }
+
+    /**
+     * Works on one chunk of a round, with its own scratch arrays.
+     */
+    private final class Worker {
+        private final Table table;
+        private final int[] kinds, squares, childOrdinals, childSquares;
+        private final int[] children = new int[MAX_CHILDREN];
+        private final int pieces;
+        private boolean exited; //whether the last generate() found a capture or promotion
+
+        Worker(Table table) {
+            this.table = table;
+            kinds = table.kinds;
+            pieces = kinds.length;
+            squares = new int[pieces];
+            childOrdinals = new int[pieces];
+            childSquares = new int[pieces];
+        }
+
+        /**
+         * Decide what can be decided this round in a range of positions.
+         * @param first The first index.
+         * @param last One past the last index.
+         * @param plies 0 to mark illegal positions and checkmates, or the length of the mates to find.
+         * @param exits Whether to look at every position with a capture or promotion as well as the candidates.
+         * @return The number of positions decided.
+         */
+        int run(int first, int last, int plies, boolean exits) {
+            int decided = 0;
+            for (int index = first; index < last; index++) {
+                if (plies == 0) {
+                    table.entries[index] = (byte) initial(index);
+                } else if (table.entries[index] == Tablebase.DRAW && (table.candidates[index] || exits && table.exits[index]) &&
+                        decide(index, plies)) {
+                    table.entries[index] = (byte) (Tablebase.PLIES + plies);
+                    markPredecessors(index);
+                    decided++;
+                }
+            }
+            return decided;
+        }
+
+        /**
+         * Mark the positions that could be decided next round because this one was decided: those that reach it by
+         * a move that neither captures nor promotes. They are found by taking back a move of the player who isn't to
+         * move. Several threads may mark one position at once, which is harmless since they all write true.
+         * @param index The position just decided.
+         */
+        private void markPredecessors(int index) {
+            boolean white = decode(index);
+            int colour = white ? 1 : 0;//the player who made the last move
+            long occupied = 0;
+            for (int i = 0; i < pieces; i++) {
+                occupied |= 1L << squares[i];
+            }
+            for (int moved = 0; moved < pieces; moved++) {
+                if ((kinds[moved] & 1) != colour) {
+                    continue;
+                }
+                int to = squares[moved], shift = 6 * (pieces - 1 - moved);
+                long sources;
+                if (kinds[moved] / 2 == 0) {
+                    int step = colour == 0 ? 8 : -8, one = to - step, two = to - 2 * step;
+                    sources = one >= 8 && one < 56 && (occupied & 1L << one) == 0 ? 1L << one : 0;
+                    if (sources != 0 && two >> 3 == (colour == 0 ? 1 : 6) && (occupied & 1L << two) == 0) {
+                        sources |= 1L << two;
+                    }
+                } else {
+                    sources = targets(kinds[moved], to, occupied) & ~occupied;
+                }
+                int before = index ^ 1 << 6 * pieces;
+                for (; sources != 0; sources &= sources - 1) {
+                    int from = Long.numberOfTrailingZeros(sources);
+                    table.nextCandidates[before - (to << shift) + (from << shift)] = true;
+                }
+            }
+        }
+
+        /**
+         * Work out the entry of a position before the first round.
+         * @param index The position.
+         * @return ILLEGAL, a checkmate, or DRAW for now.
+         */
+        private int initial(int index) {
+            boolean white = decode(index);
+            long occupied = 0;
+            for (int i = 0; i < pieces; i++) {
+                occupied |= 1L << squares[i];
+                if (kinds[i] / 2 == 0 && (squares[i] < 8 || squares[i] >= 56)) {
+                    return Tablebase.ILLEGAL;//a pawn can't be on the first or last rank
+                }
+            }
+            if (Long.bitCount(occupied) != pieces || attacked(squares[white ? 1 : 0], white ? 0 : 1, occupied, -1)) {
+                return Tablebase.ILLEGAL;//two pieces on one square, or the player who just moved is in check
+            }
+            int moves = generate(index);
+            table.exits[index] = exited;
+            table.candidates[index] = true;//the first round looks at everything
+            if (moves == 0 && attacked(squares[white ? 0 : 1], white ? 1 : 0, occupied, -1)) {
+                return Tablebase.PLIES;//mated
+            }
+            return Tablebase.DRAW;
+        }
+
+        /**
+         * Decide whether an undecided position is a mate in exactly the given number of plies: a win if some move
+         * leads to a loss found in an earlier round, or a loss if every move leads to a win found in an earlier round.
+         * @param index The position.
+         * @param plies The length of the mates to find this round.
+         * @return true if the position is decided.
+         */
+        private boolean decide(int index, int plies) {
+            int count = generate(index);
+            for (int i = 0; i < count; i++) {
+                int childPlies = children[i] - Tablebase.PLIES;
+                boolean earlier = childPlies >= 0 && childPlies < plies;
+                if (plies % 2 == 1 && earlier && childPlies % 2 == 0) {
+                    return true;
+                }
+                if (plies % 2 == 0 && !(earlier && childPlies % 2 == 1)) {
+                    return false;
+                }
+            }
+            return plies % 2 == 0 && count > 0;
+        }
+
+        /**
+         * Read a position's squares out of its index.
+         * @param index The position.
+         * @return Whether white is to move.
+         */
+        private boolean decode(int index) {
+            for (int i = 0; i < pieces; i++) {
+                squares[i] = index >>> 6 * (pieces - 1 - i) & 63;
+            }
+            return index >>> 6 * pieces == 0;
+        }
+
+        /**
+         * Find the entry of the position after each legal move.
+         * @param index The position, which must be legal.
+         * @return The number of legal moves; their entries are in children.
+         */
+        private int generate(int index) {
+            boolean white = decode(index);
+            int colour = white ? 0 : 1, count = 0;
+            exited = false;
+            long occupied = 0, own = 0;
+            for (int i = 0; i < pieces; i++) {
+                occupied |= 1L << squares[i];
+                if ((kinds[i] & 1) == colour) {
+                    own |= 1L << squares[i];
+                }
+            }
+            for (int moving = 0; moving < pieces; moving++) {
+                if ((kinds[moving] & 1) != colour) {
+                    continue;
+                }
+                int from = squares[moving], type = kinds[moving] / 2, shift = 6 * (pieces - 1 - moving);
+                long targets = targets(kinds[moving], from, occupied) & ~own;
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    int captured = -1;
+                    for (int i = 0; i < pieces; i++) {
+                        if (squares[i] == to) {
+                            captured = i;
+                        }
+                    }
+                    squares[moving] = to;
+                    long after = (occupied & ~(1L << from)) | 1L << to;
+                    if (!attacked(squares[colour], 1 - colour, after, captured)) {
+                        boolean promotes = type == 0 && (to < 8 || to >= 56);
+                        if (captured < 0 && !promotes) {
+                            int child = index ^ 1 << 6 * pieces;
+                            children[count++] = table.entries[child - (from << shift) + (to << shift)] & 0xFF;
+                        } else {
+                            exited = true;
+                            for (int becomes = promotes ? 1 : type; becomes <= (promotes ? 4 : type); becomes++) {
+                                children[count++] = lookUp(moving, becomes * 2 + colour, captured, !white);
+                            }
+                        }
+                    }
+                    squares[moving] = from;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Find the entry of a position with other material, after a capture or promotion, in the tablebase made
+         * for it earlier.
+         * @param moved The slot of the piece that moved, now on its new square.
+         * @param becomes The Piece ordinal of the piece that moved, after any promotion.
+         * @param captured The slot of the captured piece, or -1.
+         * @param whiteToMove Whether white is to move after the move.
+         * @return The entry.
+         */
+        private int lookUp(int moved, int becomes, int captured, boolean whiteToMove) {
+            int count = 0;
+            for (int i = 0; i < pieces; i++) {
+                if (i != captured) {
+                    childOrdinals[count] = i == moved ? becomes : kinds[i];
+                    childSquares[count++] = squares[i];
+                }
+            }
+            boolean flipped = Tablebase.isFlipped(childOrdinals, count);
+            Table other = tables.get(Tablebase.materialKey(childOrdinals, count, flipped));
+            return other.entries[Tablebase.index(other.kinds, childOrdinals, childSquares, whiteToMove, flipped)] & 0xFF;
+        }
+
+        /**
+         * Check whether a square is attacked.
+         * @param square The square.
+         * @param colour The colour of the attackers, 0 for white.
+         * @param occupied The occupied squares.
+         * @param ignored The slot of a piece that has just been captured, or -1.
+         * @return true if a piece of that colour attacks the square.
+         */
+        private boolean attacked(int square, int colour, long occupied, int ignored) {
+            for (int i = 0; i < pieces; i++) {
+                if (i != ignored && (kinds[i] & 1) == colour && attacks(kinds[i], squares[i], square, occupied)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Check whether a piece attacks a square, without working out every square it attacks.
+     * @param ordinal The Piece ordinal of the piece.
+     * @param from Its square.
+     * @param square The square it might attack.
+     * @param occupied The occupied squares, which block sliding pieces.
+     * @return true if the piece attacks the square.
+     */
+    private static boolean attacks(int ordinal, int from, int square, long occupied) {
+        long bit = 1L << square;
+        switch (ordinal / 2) {
+            case 0:
+                return (PAWN_ATTACKS[ordinal & 1][from] & bit) != 0;
+            case 1:
+                return (KNIGHT_ATTACKS[from] & bit) != 0;
+            case 2:
+                return (BISHOP_LINES[from] & bit) != 0 && (BETWEEN[from][square] & occupied) == 0;
+            case 3:
+                return (ROOK_LINES[from] & bit) != 0 && (BETWEEN[from][square] & occupied) == 0;
+            case 4:
+                return ((BISHOP_LINES[from] | ROOK_LINES[from]) & bit) != 0 && (BETWEEN[from][square] & occupied) == 0;
+            default:
+                return (KING_ATTACKS[from] & bit) != 0;
+        }
+    }
+
+    /**
+     * Get the squares a piece moves to or attacks, ignoring what stands on them.
+     * @param ordinal The Piece ordinal of the piece.
+     * @param from Its square.
+     * @param occupied The occupied squares, which block sliding pieces and pawn pushes.
+     * @return The bitboard of its moves: pawn pushes to empty squares and pawn captures onto occupied ones.
+     */
+    private static long targets(int ordinal, int from, long occupied) {
+        switch (ordinal / 2) {
+            case 0:
+                int colour = ordinal & 1, step = colour == 0 ? 8 : -8, start = colour == 0 ? 1 : 6;
+                long moves = PAWN_ATTACKS[colour][from] & occupied;
+                if ((occupied & 1L << from + step) == 0) {
+                    moves |= 1L << from + step;
+                    if (from >>> 3 == start && (occupied & 1L << from + 2 * step) == 0) {
+                        moves |= 1L << from + 2 * step;
+                    }
+                }
+                return moves;
+            case 1:
+                return KNIGHT_ATTACKS[from];
+            case 5:
+                return KING_ATTACKS[from];
+            default:
+                long lines = (ordinal / 2 != 3 ? BISHOP_LINES[from] : 0) | (ordinal / 2 != 2 ? ROOK_LINES[from] : 0);
+                long reached = 0;
+                for (long remaining = lines; remaining != 0; remaining &= remaining - 1) {
+                    int to = Long.numberOfTrailingZeros(remaining);
+                    if ((BETWEEN[from][to] & occupied) == 0) {
+                        reached |= 1L << to;
+                    }
+                }
+                return reached;
+        }
+    }
+
+    /**
+     * Make tablebases and write them to a directory.
+     * @param args The directory, then the signature of each tablebase (default KQK, KRK, KPK and KBNK).
+     * @throws IOException If a file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : "tablebases");
+        String[] signatures = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) :
+                new String[] {"KQK", "KRK", "KPK", "KBNK"};
+        TablebaseGenerator generator = new TablebaseGenerator(Runtime.getRuntime().availableProcessors());
+        for (String signature : signatures) {
+            long start = System.nanoTime();
+            generator.generate(signature);
+            System.out.printf("%s: longest mate %d plies, %.1f s%n", signature, generator.getLongestMate(signature),
+                    (System.nanoTime() - start) / 1e9);
+        }
+        generator.write(directory);
+        generator.shutdown();
+    }
+}
@@ -0,0 +1,183 @@
+package iseechess.engine;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import iseechess.Piece;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Endgame tablebases: the exact result and distance to mate of every position with a few pieces, made ahead of time by
+ * TablebaseGenerator. With them the engine plays endgames like king and rook against king perfectly without
+ * searching, and a search that reaches such a position knows its result at once.
+ *
+ * The tablebase files are memory-mapped, so opening them costs nothing and a probe reads one or two bytes of a file,
+ * which takes microseconds once the operating system has the page in memory. Probes only read, so any number of
+ * threads may share one Tablebases.
+ *
+ * For example, with the files made by "java iseechess.engine.TablebaseGenerator tablebases KQK KRK KPK":
+ *     Tablebases tablebases = new Tablebases(new File("tablebases"));
+ *     int result = tablebases.probe(board);
+ */
+public class Tablebases implements Closeable {
+    public static final String EXTENSION = ".istb";
+    public static final int UNKNOWN = -2, DRAW = -1; //see probe()
+
+    private final Tablebase[] tables;
+    private final long[] materialKeys; //of each table, searched in order since there are only a few
+    private final int maxPieces;
+
+    /**
+     * Open every tablebase file in a directory.
+     * @param directory The directory of .istb files.
+     * @throws IOException If a file can't be opened or isn't a tablebase.
+     */
+    public Tablebases(File directory) throws IOException {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(EXTENSION);
+            }
+        });
+        if (files == null) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        ArrayList<Tablebase> opened = new ArrayList<Tablebase>();
+        try {
+            for (File file : files) {
+                opened.add(new Tablebase(file));
+            }
+        } catch (IOException e) {
+            for (Tablebase table : opened) {
+                table.close();
+            }
+            throw e;
+        }
+        tables = opened.toArray(new Tablebase[opened.size()]);
+        materialKeys = new long[tables.length];
+        int most = 2;//bare kings are always a draw, table or not
+        for (int i = 0; i < tables.length; i++) {
+            materialKeys[i] = tables[i].getMaterialKey();
+            most = Math.max(most, tables[i].getKinds().length);
+        }
+        maxPieces = most;
+    }
+
+    /**
+     * Get the most pieces, kings included, of any position the tablebases cover.
+     * @return The number of pieces.
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Get the number of tablebase files open.
+     * @return The number of files, one per material.
+     */
+    public int size() {
+        return tables.length;
+    }
+
+    /**
+     * Look up the result of a position.
+     * @param board The position.
+     * @return UNKNOWN if no tablebase covers the position, DRAW, or else the number of plies until mate with best play:
+     *         odd if the player to move mates, even if the player to move gets mated (0 if they already are).
+     */
+    public int probe(Board board) {
+        return probe(board, new int[Tablebase.MAX_PIECES], new int[Tablebase.MAX_PIECES]);
+    }
+
+    /**
+     * Look up the result of a position without allocating, for the search, which probes at every node.
+     * @param board The position.
+     * @param ordinals Scratch space for the pieces, at least Tablebase.MAX_PIECES long.
+     * @param squares Scratch space for their squares, at least Tablebase.MAX_PIECES long.
+     * @return The same as probe(Board).
+     */
+    int probe(Board board, int[] ordinals, int[] squares) {
+        long occupied = board.getOccupied();
+        int count = Long.bitCount(occupied);
+        if (count > maxPieces || board.getEnPassantSquare() >= 0 || board.canCastle(true, true) ||
+                board.canCastle(true, false) || board.canCastle(false, true) || board.canCastle(false, false)) {
+            return UNKNOWN;
+        }
+        if (count == 2) {
+            return DRAW;
+        }
+        for (int i = 0; occupied != 0; i++) {
+            squares[i] = Long.numberOfTrailingZeros(occupied);
+            ordinals[i] = board.getPiece(squares[i]).ordinal();
+            occupied &= occupied - 1;
+        }
+        boolean flipped = Tablebase.isFlipped(ordinals, count);
+        long materialKey = Tablebase.materialKey(ordinals, count, flipped);
+        for (int i = 0; i < tables.length; i++) {
+            if (materialKeys[i] == materialKey) {
+                int entry = tables[i].get(Tablebase.index(tables[i].getKinds(), ordinals, squares,
+                        board.getIsWhitesTurn(), flipped));
+                return entry == Tablebase.DRAW ? DRAW : entry == Tablebase.ILLEGAL ? UNKNOWN : entry - Tablebase.PLIES;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Find the best move by the tablebases: the fastest mate when winning, the slowest when losing, and any move that
+     * keeps the draw when drawing. Moves into positions no tablebase covers are skipped.
+     * @param board The position. It is not changed.
+     * @return The packed move, or Move.NONE if no tablebase covers the position or there is no legal move.
+     */
+    public int getBestMove(Board board) {
+        int result = probe(board);
+        if (result == UNKNOWN) {
+            return Move.NONE;
+        }
+        Board child = board.clone();
+        MoveList moves = new MoveList();
+        child.generateMoves(moves);
+        int best = Move.NONE, bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            child.makeMove(moves.get(i));
+            int rank = rank(probe(child));
+            child.unmakeMove();
+            if (rank > bestRank) {
+                best = moves.get(i);
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Rank the result of the position after a move from the point of view of the player making it.
+     * @param result The result for the opponent, see probe().
+     * @return Higher for better moves: quick mates first, then draws, then slow losses.
+     */
+    private static int rank(int result) {
+        if (result == UNKNOWN) {
+            return Integer.MIN_VALUE;
+        }
+        if (result == DRAW) {
+            return 0;
+        }
+        return result % 2 == 0 ? 1000 - result : -1000 + result;//the opponent gets mated, or mates
+    }
+
+    /**
+     * Close every tablebase file.
+     * @throws IOException If a file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Tablebase table : tables) {
+            table.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package iseechess.engine;
+
+import iseechess.Board;
+
+/**
+ * Measures how much faster the engine reaches a fixed depth with more threads, which is the usual way to judge a
+ * parallel search: the node rate of lazy SMP grows with every thread, but what matters is how soon the extra nodes
+ * get the main thread to the same depth.
+ *
+ * Run main() from the command line, e.g.
+ *     java -cp target/classes iseechess.engine.TimeToDepth 12 16
+ * to search a set of middlegame positions to depth 12 with 1, 2, 4, 8 and 16 threads and print the speedup of each.
+ */
+public class TimeToDepth {
+    private static final String[] POSITIONS = {
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+            "2r3k1/pp3ppp/2n1p3/3pP3/3P4/P4N2/1P3PPP/2R3K1 w - - 0 25"};
+
+    private TimeToDepth() {}
+
+    /**
+     * Search every position to the given depth with 1, 2, 4, ... threads up to the given maximum, with a cleared
+     * transposition table each time, and print the total time, the node rate and the speedup over one thread.
+     * @param args The depth (default 10), the largest number of threads (default: one per processor) and the size
+     *             of the transposition table in megabytes (default 256).
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hash = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        long singleThreaded = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2) {
+            Engine engine = new Engine(hash, threads);
+            long nanos = 0, nodes = 0;
+            for (String fen : POSITIONS) {
+                engine.clearHash();
+                long start = System.nanoTime();
+                SearchResult result = engine.search(new Board(fen), 0, 0, depth);
+                nanos += System.nanoTime() - start;
+                nodes += result.getNodes();
+            }
+            engine.close();
+            if (threads == 1) {
+                singleThreaded = nanos;
+            }
+            System.out.printf("%2d threads: depth %d in %.2f s, %.0f nodes/s, speedup %.2f%n",
+                    threads, depth, nanos / 1e9, nodes / (nanos / 1e9), (double) singleThreaded / nanos);
+        }
+    }
+}
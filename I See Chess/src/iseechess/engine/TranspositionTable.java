@@ -0,0 +1,179 @@
+package iseechess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Remembers what the search found out about positions it has already seen, keyed by the position's Zobrist key:
+ * the best move, the score, the depth it was searched to and whether the score is exact or only a bound.
+ * The same position is reached through many move orders, and each iteration of iterative deepening searches the
+ * positions of the one before, so this saves most of the work of a search.
+ *
+ * The table lives outside the Java heap, in direct ByteBuffers, so that even one of several gigabytes adds nothing
+ * to garbage collection. Entries are 16 bytes, grouped into buckets of four that fill one 64 byte cache line.
+ *
+ * Any number of search threads may use one table at once without locking. Each entry is stored as two longs:
+ * the packed data, and the key XORed with the data. A thread that reads an entry while another thread is writing it
+ * gets a mismatched pair, which fails the check and simply counts as a miss.
+ *
+ * When a bucket is full, a new entry replaces the one that is least useful: entries left over from earlier searches
+ * go first, then the ones searched to the smallest depth.
+ */
+class TranspositionTable {
+    /**
+     * Bound types. EXACT scores are the true score; LOWER scores caused a cutoff, so the true score is at least this;
+     * UPPER scores are from a search where no move reached alpha, so the true score is at most this.
+     */
+    static final int EXACT = 1, LOWER = 2, UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16, BUCKET_ENTRIES = 4, BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int SEGMENT_BITS = 30; //each direct buffer holds 1 GB, since a ByteBuffer is indexed by int
+    private static final int AGE_MASK = 63;
+
+    /*
+     * Layout of the data long: bits 0-20 the move, 21-36 the score (plus 32768), 37-44 the depth,
+     * 45-46 the bound, 47-52 the age. A stored entry never has a bound of 0, so data is never 0.
+     */
+    private final ByteBuffer[] segments;
+    private final long bucketMask;
+    private volatile int age;
+
+    /**
+     * Make a table of the given size.
+     * @param megabytes The size of the table in megabytes, rounded down to a power of two buckets.
+     */
+    TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / BUCKET_BYTES));
+        long bytes = buckets * BUCKET_BYTES;
+        int segmentCount = (int) Math.max(1, bytes >>> SEGMENT_BITS);
+        segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) Math.min(bytes, 1L << SEGMENT_BITS)).order(ByteOrder.nativeOrder());
+        }
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Look up a position.
+     * @param key The Zobrist key of the position.
+     * @return The packed data of the entry, to be read with move(), score(), depth() and bound(), or 0 if the
+     *         position is not in the table.
+     */
+    long probe(long key) {
+        long offset = (key & bucketMask) * BUCKET_BYTES;
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)];
+        int index = (int) (offset & ((1L << SEGMENT_BITS) - 1));
+        for (int i = 0; i < BUCKET_ENTRIES; i++, index += ENTRY_BYTES) {
+            long data = segment.getLong(index + 8);
+            if ((segment.getLong(index) ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Store what a search found about a position, replacing the least useful entry of its bucket.
+     * @param key The Zobrist key of the position.
+     * @param move The best move found, or Move.NONE.
+     * @param score The score, between -32767 and 32767.
+     * @param depth The depth the position was searched to, from 0 to 255.
+     * @param bound EXACT, LOWER or UPPER.
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        long offset = (key & bucketMask) * BUCKET_BYTES;
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)];
+        int first = (int) (offset & ((1L << SEGMENT_BITS) - 1)), replace = first, worst = Integer.MAX_VALUE;
+        int currentAge = age;
+        for (int i = 0, index = first; i < BUCKET_ENTRIES; i++, index += ENTRY_BYTES) {
+            long data = segment.getLong(index + 8);
+            if (data == 0 || (segment.getLong(index) ^ data) == key) {//an empty slot, or this same position
+                if (data != 0 && move == 0) {
+                    move = move(data);//keep the old best move rather than forget it
+                }
+                replace = index;
+                break;
+            }
+            //entries from older searches lose 16 plies of depth for each search since
+            int value = depth(data) - 16 * ((currentAge - (int) (data >>> 47)) & AGE_MASK);
+            if (value < worst) {
+                worst = value;
+                replace = index;
+            }
+        }
+        long data = (move & 0x1FFFFFL) | ((long) (score + 32768) << 21) | ((long) depth << 37) |
+                ((long) bound << 45) | ((long) currentAge << 47);
+        segment.putLong(replace, key ^ data);
+        segment.putLong(replace + 8, data);
+    }
+
+    /**
+     * Start a new search, so that entries from earlier searches are replaced first.
+     */
+    void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Empty the table, e.g. before a new game.
+     */
+    void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int index = 0; index < segment.capacity(); index += 8) {
+                segment.putLong(index, 0);
+            }
+        }
+    }
+
+    /**
+     * Estimate how full the table is from a sample of its first buckets, as UCI's "hashfull" reports it.
+     * @return The number of used entries per thousand that were stored by the current search.
+     */
+    int permillFull() {
+        ByteBuffer segment = segments[0];
+        int used = 0, sampled = Math.min(1000, segment.capacity() / ENTRY_BYTES);
+        for (int i = 0; i < sampled; i++) {
+            long data = segment.getLong(i * ENTRY_BYTES + 8);
+            if (data != 0 && (int) (data >>> 47) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / Math.max(1, sampled);
+    }
+
+    /**
+     * Get the best move from packed entry data.
+     * @param data The data returned by probe().
+     * @return The packed move, or Move.NONE.
+     */
+    static int move(long data) {
+        return (int) (data & 0x1FFFFF);
+    }
+
+    /**
+     * Get the score from packed entry data.
+     * @param data The data returned by probe().
+     * @return The score.
+     */
+    static int score(long data) {
+        return (int) ((data >>> 21) & 0xFFFF) - 32768;
+    }
+
+    /**
+     * Get the depth from packed entry data.
+     * @param data The data returned by probe().
+     * @return The depth the position was searched to.
+     */
+    static int depth(long data) {
+        return (int) ((data >>> 37) & 0xFF);
+    }
+
+    /**
+     * Get the bound type from packed entry data.
+     * @param data The data returned by probe().
+     * @return EXACT, LOWER or UPPER.
+     */
+    static int bound(long data) {
+        return (int) ((data >>> 45) & 3);
+    }
+}
@@ -0,0 +1,138 @@
+package iseechess.player;
+
+import iseechess.Board;
+import iseechess.engine.Engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The built-in engine as a Player. Each EnginePlayer searches on a thread of its own, which exists only while the
+ * engine is thinking, so thousands of idle players cost no threads.
+ *
+ * The search is given the whole thinking time less a small margin, so the move arrives before the deadline.
+ *
+ * Players.getNames() makes every player to ask its name, so the no-argument constructor leaves making the engine, and
+ * allocating its transposition table, until the first move is asked for.
+ */
+public class EnginePlayer implements Player {
+    public static final String NAME = "I See Chess";
+    static final int DEFAULT_HASH_MEGABYTES = 16; //small, since many games may be played at once
+    private static final long MARGIN_MILLIS = 20; //kept back so that the move is in before the deadline
+
+    private volatile Engine engine; //set once, by the constructor, newGame() or the first search
+    private final ThreadPoolExecutor searcher;
+
+    /**
+     * Make a player with its own single-threaded engine and a small transposition table.
+     */
+    public EnginePlayer() {
+        this(null);
+    }
+
+    /**
+     * Make a player that searches with an engine, e.g. one with an opening book or several threads.
+     * @param engine The engine, or null to make one when needed. It must not be used by anything else while the
+     *               player is.
+     */
+    public EnginePlayer(Engine engine) {
+        this.engine = engine;
+        searcher = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "engine player");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        searcher.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get the name of the player.
+     * @return "I See Chess".
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Clear the engine's transposition table, or make the engine if it hasn't been made yet. A new engine searches the
+     * starting position one ply deep, so that loading the engine's classes (a few hundred milliseconds) doesn't count
+     * against the first move. Either way this returns only when it is done, since GameController calls it before
+     * starting the clock: clearing the table can take tens of milliseconds, which at a fast time control is more than
+     * the first move has.
+     */
+    @Override
+    public void newGame() {
+        if (engine == null) {
+            Engine made = new Engine(DEFAULT_HASH_MEGABYTES);
+            made.search(new Board(), 0, 0, 1);
+            engine = made;//no search can be running without an engine
+            return;
+        }
+        stop();
+        Future<?> cleared = searcher.submit(new Runnable() {
+            @Override
+            public void run() {
+                engine.clearHash();//after any search still running, so that the two don't overlap
+            }
+        });
+        try {
+            cleared.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Start a search on the player's thread.
+     * @param board The position, which the search may change.
+     * @param millis How long to think, or 0 to think until stop() is called or a mate is found.
+     * @return The future of the engine's best move.
+     */
+    @Override
+    public CompletableFuture<Integer> chooseMove(final Board board, long millis) {
+        final long limit = millis == 0 ? 0 : Math.max(1, millis - Math.min(MARGIN_MILLIS, millis / 4));
+        final CompletableFuture<Integer> move = new CompletableFuture<Integer>();
+        Engine asked = engine;
+        final int stopCount = asked != null ? asked.getStopCount() : 0;//a new engine's count starts at 0
+        searcher.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (move.isDone()) {//the deadline passed while an earlier search was finishing
+                    return;
+                }
+                if (engine == null) {
+                    engine = new Engine(DEFAULT_HASH_MEGABYTES);
+                }
+                try {
+                    move.complete(engine.search(board, limit, 0, Engine.MAX_DEPTH, stopCount).getBestMove());
+                } catch (RuntimeException e) {
+                    move.completeExceptionally(e);
+                }
+            }
+        });
+        return move;
+    }
+
+    /**
+     * Make the search in progress, if any, return early.
+     */
+    @Override
+    public void stop() {
+        Engine searching = engine;
+        if (searching != null) {
+            searching.stop();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package iseechess.player;
+
+import iseechess.Board;
+import iseechess.MoveList;
+import iseechess.MoveResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Plays a game between two Players: asks the player to move for a move, checks it is legal, plays it on the board,
+ * and so on until the game is over. Nothing waits: the controller asks for a move and carries on when the player's
+ * future completes, so a game costs no thread of its own and any number of games can be played at once.
+ *
+ * Everything the controller does to the board, and every call to its listeners, happens on the Executor given to the
+ * constructor, one thing at a time. For the user interface that is the Swing event dispatch thread, so that the
+ * ChessPanel can draw the board the controller plays on. For games nobody watches, a direct executor (a Runnable's
+ * run() called at once) plays each move on the thread of the player that chose it.
+ *
+ * A player that hasn't answered LAG_MILLIS after its time is up loses on time, and a player that answers with an
+ * illegal move or fails loses too. The game is a draw by stalemate, the fifty-move rule or threefold repetition, as
+ * Board.evaluateConditions() decides.
+ *
+ * For example, to watch the engine play itself:
+ *     GameController game = new GameController(new Board(), new EnginePlayer(), new EnginePlayer(), executor);
+ *     game.setMillisPerMove(1000);
+ *     System.out.println(game.start().get());
+ */
+public class GameController {
+    public static final long LAG_MILLIS = 100; //how late a move may arrive before the player loses on time
+
+    /**
+     * Told about the moves of a game as they are played, on the controller's Executor.
+     */
+    public interface Listener {
+        /**
+         * Called after a move has been played on the board.
+         * @param move The packed move.
+         * @param result What the move led to, as reported by Board.evaluateConditions().
+         */
+        void movePlayed(int move, MoveResult result);
+
+        /**
+         * Called once the game is over. Not called if the game is aborted.
+         * @param result The result.
+         */
+        void gameOver(GameResult result);
+    }
+
+    //one thread times every game, since all it does is fail the futures of late moves
+    private static final ScheduledExecutorService CLOCK = makeClock();
+
+    private final Board board;
+    private final Player[] players; //white, then black
+    private final long[] millis = new long[2];
+    private final Executor executor;
+    private final ArrayList<Listener> listeners = new ArrayList<Listener>();
+    private final CompletableFuture<GameResult> result = new CompletableFuture<GameResult>();
+    private final MoveList legal = new MoveList();
+    private int[] moves = new int[64];
+    private int moveCount;
+    private CompletableFuture<Integer> pending; //the move asked for, or null; guarded by this like everything else
+    private boolean started;
+
+    /**
+     * Make a game. No player has a time limit until setMillisPerMove() is called.
+     * @param board The starting position. The controller plays the moves on it, so it must not be changed by anything
+     *              else until the game is over.
+     * @param white The player of the white pieces.
+     * @param black The player of the black pieces.
+     * @param executor Where the moves are played and the listeners called, see the class documentation.
+     */
+    public GameController(Board board, Player white, Player black, Executor executor) {
+        this.board = board;
+        this.players = new Player[] {white, black};
+        this.executor = executor;
+    }
+
+    /**
+     * Give both players the same time for each move.
+     * @param millis The time in milliseconds, or 0 for no limit.
+     */
+    public void setMillisPerMove(long millis) {
+        setMillisPerMove(true, millis);
+        setMillisPerMove(false, millis);
+    }
+
+    /**
+     * Give one player a time for each move, e.g. to let a person think as long as they like against a computer.
+     * @param colour The player's colour. True is white and false is black.
+     * @param millis The time in milliseconds, or 0 for no limit.
+     */
+    public synchronized void setMillisPerMove(boolean colour, long millis) {
+        this.millis[colour ? 0 : 1] = millis;
+    }
+
+    /**
+     * Add a listener to be told about the moves. Add listeners before start().
+     * @param listener The listener.
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Get the board the game is played on.
+     * @return The board. Only read it on the controller's Executor.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Get one of the players.
+     * @param colour The player's colour. True is white and false is black.
+     * @return The player.
+     */
+    public Player getPlayer(boolean colour) {
+        return players[colour ? 0 : 1];
+    }
+
+    /**
+     * Start the game, on the controller's Executor. It returns at once.
+     * @return The future result of the game, which is cancelled if the game is aborted.
+     */
+    public CompletableFuture<GameResult> start() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                begin();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Abandon the game: stop the player to move from thinking and cancel the result. Moves chosen afterwards are
+     * ignored.
+     */
+    public void abort() {
+        Player thinking = null;
+        synchronized (this) {
+            if (pending != null) {
+                thinking = players[board.getIsWhitesTurn() ? 0 : 1];
+                pending = null;
+            }
+            result.cancel(false);
+        }
+        if (thinking != null) {
+            thinking.stop();
+        }
+    }
+
+    /**
+     * Tell the players about the new game and ask for the first move. Runs on the Executor.
+     */
+    private synchronized void begin() {
+        if (started || result.isDone()) {
+            return;
+        }
+        started = true;
+        players[0].newGame();
+        if (players[1] != players[0]) {
+            players[1].newGame();
+        }
+        if (!gameOver(board.evaluateConditions())) {
+            askForMoves();
+        }
+    }
+
+    /**
+     * Ask the player to move for its move. Players that answer at once have their moves played right here, in a loop,
+     * so that a game between two of them doesn't nest a call for every move. Runs on the Executor.
+     */
+    private void askForMoves() {
+        while (!result.isDone()) {
+            final int side = board.getIsWhitesTurn() ? 0 : 1;
+            final CompletableFuture<Integer> future;
+            try {
+                future = players[side].chooseMove(board.clone(), millis[side]);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                forfeit(side, GameResult.Reason.ERROR);
+                return;
+            }
+            pending = future;
+            if (!future.isDone()) {
+                waitFor(future, side);
+                return;
+            }
+            moveChosen(future, side);
+        }
+    }
+
+    /**
+     * Carry on with the game once a move arrives, or lose the player the game when its time is up.
+     * @param future The future of the move.
+     * @param side 0 if white is to move, 1 if black is.
+     */
+    private void waitFor(final CompletableFuture<Integer> future, int side) {
+        final ScheduledFuture<?> timeout = millis[side] == 0 ? null : CLOCK.schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.completeExceptionally(new TimeoutException());
+            }
+        }, millis[side] + LAG_MILLIS, TimeUnit.MILLISECONDS);
+        future.whenComplete(new BiConsumer<Integer, Throwable>() {
+            @Override
+            public void accept(Integer move, Throwable error) {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (GameController.this) {
+                            if (future == pending) {
+                                moveChosen(future, board.getIsWhitesTurn() ? 0 : 1);
+                                askForMoves();
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Play the move a player chose, or make it lose if it failed to choose one, and check whether the game is over.
+     * @param future The completed future of the move.
+     * @param side 0 if white is to move, 1 if black is.
+     */
+    private void moveChosen(CompletableFuture<Integer> future, int side) {
+        pending = null;
+        Integer move;
+        try {
+            move = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                players[side].stop();
+                forfeit(side, GameResult.Reason.TIME_FORFEIT);
+            } else {
+                e.getCause().printStackTrace();
+                forfeit(side, GameResult.Reason.ERROR);
+            }
+            return;
+        } catch (CancellationException e) {
+            forfeit(side, GameResult.Reason.ERROR);
+            return;
+        }
+        if (move == null || !isLegal(move)) {
+            forfeit(side, GameResult.Reason.ILLEGAL_MOVE);
+            return;
+        }
+        board.makeMove(move);
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = move;
+        MoveResult outcome = board.evaluateConditions();
+        for (Listener listener : listeners) {
+            listener.movePlayed(move, outcome);
+        }
+        gameOver(outcome);
+    }
+
+    /**
+     * Check whether a move is one of the legal moves of the position.
+     * @param move The packed move.
+     * @return true if it is legal.
+     */
+    private boolean isLegal(int move) {
+        legal.clear();
+        board.generateMoves(legal);
+        for (int i = 0; i < legal.size(); i++) {
+            if (legal.get(i) == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * End the game if the position is checkmate or a draw.
+     * @param outcome The state of the position, from Board.evaluateConditions().
+     * @return true if the game is over.
+     */
+    private boolean gameOver(MoveResult outcome) {
+        if (outcome == MoveResult.CHECKMATE) {
+            forfeit(board.getIsWhitesTurn() ? 0 : 1, GameResult.Reason.CHECKMATE);
+            return true;
+        }
+        if (outcome == MoveResult.STALEMATE) {
+            GameResult.Reason reason = board.hasLegalMove() ? board.getHalfmoveClock() >= 100 ?
+                    GameResult.Reason.FIFTY_MOVES : GameResult.Reason.REPETITION : GameResult.Reason.STALEMATE;
+            finish(new GameResult(GameResult.Outcome.DRAW, reason, Arrays.copyOf(moves, moveCount)));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * End the game with a loss for one player.
+     * @param side 0 if white loses, 1 if black does.
+     * @param reason Why.
+     */
+    private void forfeit(int side, GameResult.Reason reason) {
+        finish(new GameResult(side == 0 ? GameResult.Outcome.BLACK_WINS : GameResult.Outcome.WHITE_WINS, reason,
+                Arrays.copyOf(moves, moveCount)));
+    }
+
+    /**
+     * Tell the listeners the game is over and complete the result, unless the game was aborted.
+     * @param gameResult The result.
+     */
+    private void finish(GameResult gameResult) {
+        if (result.isDone()) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.gameOver(gameResult);
+        }
+        result.complete(gameResult);
+    }
+
+    /**
+     * Make the thread that times the players.
+     * @return The scheduler. Its thread is a daemon and cancelled timeouts are dropped at once, so that the queue
+     *         doesn't fill up with the timeouts of moves that arrived in time.
+     */
+    private static ScheduledExecutorService makeClock() {
+        ScheduledThreadPoolExecutor clock = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "game clock");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        clock.setRemoveOnCancelPolicy(true);
+        return clock;
+    }
+}
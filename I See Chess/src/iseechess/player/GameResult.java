@@ -0,0 +1,109 @@
+package iseechess.player;
+
+import iseechess.Move;
+
+/**
+ * How a game played by a GameController ended: who won, why, and the moves that were played.
+ */
+public class GameResult {
+    /**
+     * Who won.
+     */
+    public enum Outcome {
+        WHITE_WINS, BLACK_WINS, DRAW
+    }
+
+    /**
+     * Why the game ended.
+     */
+    public enum Reason {
+        CHECKMATE("checkmate"),
+        STALEMATE("stalemate"),
+        FIFTY_MOVES("the fifty-move rule"),
+        REPETITION("threefold repetition"),
+        TIME_FORFEIT("the loser running out of time"),
+        ILLEGAL_MOVE("the loser playing an illegal move"),
+        ERROR("the loser failing to choose a move");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Describe the reason in words, e.g. for a dialog.
+         * @return The description, e.g. "threefold repetition".
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Outcome outcome;
+    private final Reason reason;
+    private final int[] moves;
+
+    /**
+     * Make a game result.
+     * @param outcome Who won.
+     * @param reason Why the game ended.
+     * @param moves The packed moves played, from the starting position.
+     */
+    public GameResult(Outcome outcome, Reason reason, int[] moves) {
+        this.outcome = outcome;
+        this.reason = reason;
+        this.moves = moves;
+    }
+
+    /**
+     * Get who won.
+     * @return The outcome.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Get why the game ended.
+     * @return The reason.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Get the moves of the game.
+     * @return The packed moves, from the starting position.
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Get the points a player scored: 1 for a win, 1/2 for a draw and 0 for a loss.
+     * @param colour The player's colour. True is white and false is black.
+     * @return The score.
+     */
+    public double getScore(boolean colour) {
+        if (outcome == Outcome.DRAW) {
+            return 0.5;
+        }
+        return (outcome == Outcome.WHITE_WINS) == colour ? 1 : 0;
+    }
+
+    /**
+     * Write the result the way PGN does, followed by the reason and the moves.
+     * @return e.g. "1-0 (checkmate) f2f3 e7e5 g2g4 d8h4".
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(outcome == Outcome.WHITE_WINS ? "1-0" :
+                outcome == Outcome.BLACK_WINS ? "0-1" : "1/2-1/2");
+        text.append(" (").append(reason.getDescription()).append(')');
+        for (int move : moves) {
+            text.append(' ').append(Move.toString(move));
+        }
+        return text.toString();
+    }
+}
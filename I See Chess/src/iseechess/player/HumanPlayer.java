@@ -0,0 +1,84 @@
+package iseechess.player;
+
+import iseechess.Board;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A person playing through the user interface. When asked for a move it just waits; the ChessPanel lets the person
+ * pick a move with the mouse and hands it over with play().
+ */
+public class HumanPlayer implements Player {
+    private final String name;
+    private CompletableFuture<Integer> request; //guarded by this; the move asked for and not yet played, or null
+
+    /**
+     * Make a human player.
+     * @param name The name of the player, e.g. "White".
+     */
+    public HumanPlayer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the player.
+     * @return The name given to the constructor.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Forget any move asked for in the last game.
+     */
+    @Override
+    public void newGame() {
+        stop();
+    }
+
+    /**
+     * Wait for play() to be called.
+     * @param board Not used, the person looks at the ChessPanel.
+     * @param millis Not used, the GameController enforces any time limit.
+     * @return The future that play() completes.
+     */
+    @Override
+    public synchronized CompletableFuture<Integer> chooseMove(Board board, long millis) {
+        request = new CompletableFuture<Integer>();
+        return request;
+    }
+
+    /**
+     * Check whether a move has been asked for and not played yet, i.e. whether the person should be allowed to move.
+     * @return true if play() is expected.
+     */
+    public synchronized boolean isToMove() {
+        return request != null && !request.isDone();
+    }
+
+    /**
+     * Play the move the person chose.
+     * @param move The packed move.
+     * @return false if no move was asked for, e.g. because the time ran out, and the move was ignored.
+     */
+    public boolean play(int move) {
+        CompletableFuture<Integer> answered;
+        synchronized (this) {
+            if (!isToMove()) {
+                return false;
+            }
+            answered = request;
+            request = null;
+        }
+        return answered.complete(move);//unlocked, since completing it may call into the GameController
+    }
+
+    /**
+     * Stop waiting for a move.
+     */
+    @Override
+    public synchronized void stop() {
+        request = null;
+    }
+}
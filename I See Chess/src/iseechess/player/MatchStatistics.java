@@ -0,0 +1,207 @@
+package iseechess.player;
+
+/**
+ * The score of a match between two players, counted from the first player's point of view, with what it says about
+ * the difference in their strength: the Elo difference with a confidence interval, and the log-likelihood ratio of a
+ * sequential probability ratio test (SPRT).
+ *
+ * The Elo difference d is the one under which the first player's expected score s is 1 / (1 + 10^(-d / 400)). The
+ * confidence interval comes from the normal approximation to the mean score, using the variance of the results
+ * actually seen, so draws narrow it as they should.
+ *
+ * The SPRT tests whether the difference is elo0 (hypothesis H0) or elo1 (H1), typically 0 and a few Elo for "is this
+ * change an improvement". It uses the normal approximation of the log-likelihood ratio that fishtest calls GSPRT:
+ *     LLR = n (s1 - s0) (2 s - s0 - s1) / (2 variance)
+ * where s0 and s1 are the expected scores under the two hypotheses. Games are played until the LLR falls below
+ * ln(beta / (1 - alpha)), accepting H0, or rises above ln((1 - beta) / alpha), accepting H1, where alpha and beta are
+ * the chances of accepting H1 when H0 is true and the other way round.
+ *
+ * Games lost on time or by failing to choose a move are counted as wins and losses like any other, but also apart, as
+ * forfeits: they say more about a time control too short for the players, or a bug, than about strength.
+ *
+ * add() may be called from any thread.
+ */
+public class MatchStatistics {
+    private int wins, draws, losses, forfeits;
+
+    /**
+     * Count the result of a game that was played out.
+     * @param score The first player's score: 1, 0.5 or 0.
+     * @return The number of games counted, this one included.
+     */
+    public int add(double score) {
+        return add(score, false);
+    }
+
+    /**
+     * Count the result of a game.
+     * @param score The first player's score: 1, 0.5 or 0.
+     * @param forfeit Whether the loser lost on time or by failing to choose a move.
+     * @return The number of games counted, this one included.
+     */
+    public synchronized int add(double score, boolean forfeit) {
+        if (forfeit) {
+            forfeits++;
+        }
+        if (score > 0.5) {
+            wins++;
+        } else if (score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+        return getGames();
+    }
+
+    /**
+     * Get the number of games won by the first player.
+     * @return The number of wins.
+     */
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    /**
+     * Get the number of drawn games.
+     * @return The number of draws.
+     */
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Get the number of games lost by the first player.
+     * @return The number of losses.
+     */
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    /**
+     * Get the number of games lost on time or by failing to choose a move, by either player.
+     * @return The number of forfeits, which are also counted as wins or losses.
+     */
+    public synchronized int getForfeits() {
+        return forfeits;
+    }
+
+    /**
+     * Get the number of games counted.
+     * @return The number of games.
+     */
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Get the first player's mean score.
+     * @return The score per game, from 0 to 1, or 0.5 before any game.
+     */
+    public synchronized double getScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * Get the variance of the score of one game.
+     * @return The variance of the results seen.
+     */
+    private synchronized double variance() {
+        int games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        double score = getScore();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score) + losses * score * score) /
+                games;
+    }
+
+    /**
+     * Estimate how much stronger the first player is.
+     * @return The Elo difference, infinite if one player won every game.
+     */
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    /**
+     * Work out the confidence interval of the Elo difference.
+     * @param z How many standard errors wide each side of the interval is, e.g. 1.96 for 95%.
+     * @return The lowest and highest Elo difference of the interval.
+     */
+    public synchronized double[] getEloInterval(double z) {
+        int games = getGames();
+        double error = games == 0 ? 0.5 : z * Math.sqrt(variance() / games);
+        return new double[] {elo(getScore() - error), elo(getScore() + error)};
+    }
+
+    /**
+     * Work out the log-likelihood ratio of the SPRT, see the class documentation.
+     * @param elo0 The Elo difference of H0.
+     * @param elo1 The Elo difference of H1.
+     * @return The LLR, or 0 while every game has had the same result, when the variance says nothing.
+     */
+    public synchronized double getLogLikelihoodRatio(double elo0, double elo1) {
+        double variance = variance();
+        if (variance == 0) {
+            return 0;
+        }
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return getGames() * (s1 - s0) * (2 * getScore() - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Get the LLR below which the SPRT accepts H0.
+     * @param alpha The chance of accepting H1 when H0 is true.
+     * @param beta The chance of accepting H0 when H1 is true.
+     * @return The lower bound.
+     */
+    public static double getLowerBound(double alpha, double beta) {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    /**
+     * Get the LLR above which the SPRT accepts H1.
+     * @param alpha The chance of accepting H1 when H0 is true.
+     * @param beta The chance of accepting H0 when H1 is true.
+     * @return The upper bound.
+     */
+    public static double getUpperBound(double alpha, double beta) {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Turn a mean score into an Elo difference.
+     * @param score The score, from 0 to 1.
+     * @return The Elo difference.
+     */
+    static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Turn an Elo difference into the mean score expected of the stronger player.
+     * @param elo The Elo difference.
+     * @return The expected score, from 0 to 1.
+     */
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Sum up the match, e.g. "+40 -30 =30 (55.0%), Elo +34.9 [-20.3, +91.2]".
+     * @return The wins, losses and draws of the first player, its score and the Elo difference with a 95% interval.
+     */
+    @Override
+    public synchronized String toString() {
+        double[] interval = getEloInterval(1.96);
+        return String.format("+%d -%d =%d (%.1f%%), Elo %+.1f [%+.1f, %+.1f]", wins, losses, draws, 100 * getScore(),
+                getElo(), interval[0], interval[1]);
+    }
+}
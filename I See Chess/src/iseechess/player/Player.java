@@ -0,0 +1,46 @@
+package iseechess.player;
+
+import iseechess.Board;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Something that chooses moves: a person clicking on the ChessPanel (HumanPlayer), the built-in engine (EnginePlayer)
+ * or any other AI. A GameController asks the players for their moves in turn and plays them on its board.
+ *
+ * chooseMove() must return at once, with a CompletableFuture that the player completes later from whatever thread it
+ * likes, so that neither the Swing event dispatch thread nor a tournament's threads ever wait for a player to think.
+ *
+ * To add your own AI, implement this interface in a public class with a public no-argument constructor, and list the
+ * class in a file named META-INF/services/iseechess.player.Player on the class path (see java.util.ServiceLoader).
+ * Players.create() then finds it by its name. See RandomPlayer for an example.
+ *
+ * A player plays one game at a time; make one player per game to play several games at once.
+ */
+public interface Player {
+    /**
+     * Get the name of the player, which must be different from every other player's.
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Get ready for a new game, e.g. by forgetting what was learned in the last one.
+     */
+    void newGame();
+
+    /**
+     * Start choosing a move. This must not block: do the thinking on another thread, or answer right away.
+     * @param board A copy of the position, with the player to move to play. The player may keep and change it.
+     * @param millis How long the player may think in milliseconds, or 0 for as long as it likes. A player that takes
+     *               longer than this (and GameController.LAG_MILLIS) loses on time.
+     * @return The packed move (see the Move class), which must be one of board.generateMoves()'s.
+     */
+    CompletableFuture<Integer> chooseMove(Board board, long millis);
+
+    /**
+     * Stop thinking about the move being chosen, if any, e.g. because the game was abandoned. The move is no longer
+     * wanted, so the future may be left as it is.
+     */
+    void stop();
+}
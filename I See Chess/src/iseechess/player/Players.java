@@ -0,0 +1,39 @@
+package iseechess.player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Finds the Players on the class path: the built-in ones and any AI added as described in the Player interface.
+ */
+public final class Players {
+    private Players() {}
+
+    /**
+     * List the names of every Player that can be made with create().
+     * @return The names, in class path order; the built-in players come first.
+     */
+    public static List<String> getNames() {
+        ArrayList<String> names = new ArrayList<String>();
+        for (Player player : ServiceLoader.load(Player.class)) {
+            names.add(player.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Make a new Player, so that every game can have its own.
+     * @param name The name of the player, see getNames().
+     * @return The player.
+     * @throws IllegalArgumentException If there is no player with that name.
+     */
+    public static Player create(String name) {
+        for (Player player : ServiceLoader.load(Player.class)) {//a new loader makes new instances
+            if (player.getName().equals(name)) {
+                return player;
+            }
+        }
+        throw new IllegalArgumentException("No such player: " + name);
+    }
+}
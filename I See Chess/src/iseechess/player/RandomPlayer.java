@@ -0,0 +1,71 @@
+package iseechess.player;
+
+import iseechess.Board;
+import iseechess.MoveList;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A player that plays a legal move at random, answering at once. It is the simplest possible AI, so it is also an
+ * example of how to write one: see META-INF/services/iseechess.player.Player for how it is made known to Players.
+ */
+public class RandomPlayer implements Player {
+    public static final String NAME = "Random";
+
+    private final Random random;
+
+    /**
+     * Make a random player.
+     */
+    public RandomPlayer() {
+        this(new Random());
+    }
+
+    /**
+     * Make a random player that chooses with the given random number generator, e.g. to replay the same games.
+     * @param random The random number generator.
+     */
+    public RandomPlayer(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Get the name of the player.
+     * @return "Random".
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Nothing to do, a random player remembers nothing.
+     */
+    @Override
+    public void newGame() {}
+
+    /**
+     * Choose a legal move at random.
+     * @param board The position.
+     * @param millis Not used, the answer is immediate.
+     * @return An already completed future of the move.
+     */
+    @Override
+    public CompletableFuture<Integer> chooseMove(Board board, long millis) {
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        if (moves.size() == 0) {
+            CompletableFuture<Integer> none = new CompletableFuture<Integer>();
+            none.completeExceptionally(new IllegalStateException("No legal moves"));
+            return none;
+        }
+        return CompletableFuture.completedFuture(moves.get(random.nextInt(moves.size())));
+    }
+
+    /**
+     * Nothing to do, a random player never thinks.
+     */
+    @Override
+    public void stop() {}
+}
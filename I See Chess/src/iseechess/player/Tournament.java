@@ -0,0 +1,366 @@
+package iseechess.player;
+
+import iseechess.Board;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Plays a match of many games between two Players without the user interface, e.g. to check that a change to the
+ * engine makes it stronger, and reports the Elo difference between them (see MatchStatistics).
+ *
+ * Several games are played at once, each on its own Board with its own two players. A game is driven by a
+ * GameController on a thread pool with a thread per game in progress; an EnginePlayer thinks on its own thread, so
+ * with one game per processor every processor is kept busy. The players of a finished game are reused for the next
+ * one, which saves making an engine per game.
+ *
+ * Each opening of the suite is played twice, once with each player as white, so that neither player gets the easier
+ * side of more openings. An opening is a FEN position; the default suite has a dozen common openings a few moves in.
+ *
+ * With setSprt() the match stops as soon as the sequential probability ratio test accepts either hypothesis, which
+ * for a clear difference is long before the game limit. Games already in progress are played out and counted.
+ *
+ * A game lost on time or by an error still counts, but is printed on standard error as it happens, and the standings
+ * say how many there were: they mean the time control is too short for the players or one of them has a bug, and
+ * either way the Elo difference is not to be trusted.
+ *
+ * Run main() from the command line, e.g.
+ *     java -cp target/classes iseechess.player.Tournament --games=2000 --millis=20 --sprt=0,20 "I See Chess" Random
+ */
+public class Tournament {
+    static final String[] DEFAULT_OPENINGS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3", //king's knight opening
+            "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3", //Ruy Lopez
+            "r1bqk1nr/pppp1ppp/2n5/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4", //Italian
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2", //Sicilian
+            "rnbqkbnr/pppp1ppp/4p3/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", //French
+            "rnbqkbnr/pp1ppppp/2p5/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", //Caro-Kann
+            "rnbqkbnr/ppp1pppp/8/3p4/2PP4/8/PP2PPPP/RNBQKBNR b KQkq c3 0 2", //queen's gambit
+            "rnbqkb1r/pppppp1p/5np1/8/2PP4/8/PP2PPPP/RNBQKBNR w KQkq - 0 3", //king's Indian
+            "rnbqkb1r/pppp1ppp/4pn2/8/2PP4/8/PP2PPPP/RNBQKBNR w KQkq - 0 3", //Nimzo- and queen's Indian
+            "rnbqkbnr/pppp1ppp/8/4p3/2P5/8/PP1PPPPP/RNBQKBNR w KQkq e6 0 2", //English
+            "rnbqkbnr/ppp1pppp/8/3p4/8/5N2/PPPPPPPP/RNBQKB1R w KQkq d6 0 2", //Reti
+    };
+    private static final int REPORT_EVERY = 100; //games between progress reports
+
+    private final String first, second;
+    private int games = 1000, concurrency = Runtime.getRuntime().availableProcessors();
+    private long millisPerMove = 100;
+    private List<String> openings = Arrays.asList(DEFAULT_OPENINGS);
+    private double elo0, elo1, alpha = 0.05, beta = 0.05;
+    private boolean sprt;
+    private PrintStream log;
+
+    /**
+     * Make a match between two players.
+     * @param first The name of the first player, see Players. Results are counted from its point of view.
+     * @param second The name of the second player.
+     * @throws IllegalArgumentException If there is no player with one of the names.
+     */
+    public Tournament(String first, String second) {
+        Players.create(first);
+        Players.create(second);
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Set the most games to play.
+     * @param games The number of games, 1000 by default.
+     */
+    public void setGames(int games) {
+        this.games = games;
+    }
+
+    /**
+     * Set how many games are played at once.
+     * @param concurrency The number of games, one per processor by default.
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Set the time control.
+     * @param millis How long each player may think about each move, in milliseconds; 100 by default.
+     */
+    public void setMillisPerMove(long millis) {
+        this.millisPerMove = millis;
+    }
+
+    /**
+     * Set the opening suite.
+     * @param openings The FEN of each opening, see DEFAULT_OPENINGS.
+     * @throws IllegalArgumentException If there is no opening or one is not a valid FEN.
+     */
+    public void setOpenings(List<String> openings) {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings");
+        }
+        for (String fen : openings) {
+            new Board(fen);
+        }
+        this.openings = new ArrayList<String>(openings);
+    }
+
+    /**
+     * Stop the match early once an SPRT decides whether the first player is elo0 or elo1 stronger.
+     * @param elo0 The Elo difference of H0, e.g. 0.
+     * @param elo1 The Elo difference of H1, e.g. 5.
+     * @param alpha The chance of accepting H1 when H0 is true, e.g. 0.05.
+     * @param beta The chance of accepting H0 when H1 is true, e.g. 0.05.
+     */
+    public void setSprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.sprt = true;
+    }
+
+    /**
+     * Print the standings every REPORT_EVERY games and at the end.
+     * @param log Where to print, or null not to.
+     */
+    public void setLog(PrintStream log) {
+        this.log = log;
+    }
+
+    /**
+     * Check whether the SPRT has accepted one of its hypotheses.
+     * @param statistics The results so far.
+     * @return 0 if not, or if no SPRT was asked for; -1 if it accepted H0, 1 if it accepted H1.
+     */
+    public int getSprtDecision(MatchStatistics statistics) {
+        if (!sprt) {
+            return 0;
+        }
+        double llr = statistics.getLogLikelihoodRatio(elo0, elo1);
+        return llr <= MatchStatistics.getLowerBound(alpha, beta) ? -1 :
+                llr >= MatchStatistics.getUpperBound(alpha, beta) ? 1 : 0;
+    }
+
+    /**
+     * Play the match.
+     * @return The results, from the first player's point of view.
+     * @throws InterruptedException If the thread is interrupted while waiting for the games.
+     */
+    public MatchStatistics run() throws InterruptedException {
+        final MatchStatistics statistics = new MatchStatistics();
+        final AtomicInteger nextGame = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(concurrency);
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "tournament " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                new Slot(Players.create(first), Players.create(second), pool, nextGame, statistics, finished).playNext();
+            }
+            finished.await();
+        } finally {
+            pool.shutdownNow();
+        }
+        if (statistics.getGames() % REPORT_EVERY != 0) {//else accept() just reported it
+            report(statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Print the standings, if there is a log.
+     * @param statistics The results so far.
+     */
+    private void report(MatchStatistics statistics) {
+        if (log == null) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(first).append(" vs ").append(second).append(": ");
+        line.append(statistics.getGames()).append(" games, ").append(statistics);
+        if (statistics.getForfeits() > 0) {
+            line.append(", ").append(statistics.getForfeits()).append(" lost on time or by an error");
+        }
+        if (sprt) {
+            line.append(String.format(", LLR %.2f [%.2f, %.2f]", statistics.getLogLikelihoodRatio(elo0, elo1),
+                    MatchStatistics.getLowerBound(alpha, beta), MatchStatistics.getUpperBound(alpha, beta)));
+            int decision = getSprtDecision(statistics);
+            if (decision != 0) {
+                line.append(decision > 0 ? ", H1 accepted" : ", H0 accepted");
+            }
+        }
+        log.println(line);
+    }
+
+    /**
+     * One place at the table: a pair of players that play one game after another until the match is over.
+     */
+    private class Slot implements BiConsumer<GameResult, Throwable> {
+        private final Player firstPlayer, secondPlayer;
+        private final ExecutorService pool;
+        private final AtomicInteger nextGame;
+        private final MatchStatistics statistics;
+        private final CountDownLatch finished;
+        private int game;
+        private boolean firstIsWhite;
+
+        Slot(Player firstPlayer, Player secondPlayer, ExecutorService pool, AtomicInteger nextGame,
+             MatchStatistics statistics, CountDownLatch finished) {
+            this.firstPlayer = firstPlayer;
+            this.secondPlayer = secondPlayer;
+            this.pool = pool;
+            this.nextGame = nextGame;
+            this.statistics = statistics;
+            this.finished = finished;
+        }
+
+        /**
+         * Start the next game of the match, or give up the slot if there are no more to play.
+         */
+        void playNext() {
+            game = nextGame.getAndIncrement();
+            if (game >= games || getSprtDecision(statistics) != 0) {
+                finished.countDown();
+                return;
+            }
+            firstIsWhite = game % 2 == 0;
+            Board board = new Board(openings.get(game / 2 % openings.size()));
+            GameController controller = new GameController(board, firstIsWhite ? firstPlayer : secondPlayer,
+                    firstIsWhite ? secondPlayer : firstPlayer, pool);
+            controller.setMillisPerMove(millisPerMove);
+            //the next game starts from a new task, so that games that end at once don't nest
+            controller.start().whenCompleteAsync(this, pool);
+        }
+
+        /**
+         * Count a finished game and start the next.
+         * @param result The result of the game.
+         * @param error Why there is no result, or null.
+         */
+        @Override
+        public void accept(GameResult result, Throwable error) {
+            if (error != null) {
+                error.printStackTrace();
+            } else {
+                GameResult.Reason reason = result.getReason();
+                boolean forfeit = reason == GameResult.Reason.TIME_FORFEIT || reason == GameResult.Reason.ERROR;
+                if (forfeit) {
+                    System.err.println("Game " + (game + 1) + " (" + (firstIsWhite ? first : second) + " as white) " +
+                            "was forfeited: " + result);
+                }
+                if (statistics.add(result.getScore(firstIsWhite), forfeit) % REPORT_EVERY == 0) {
+                    report(statistics);
+                }
+            }
+            playNext();
+        }
+    }
+
+    /**
+     * Read an opening suite.
+     * @param file A file with one FEN per line. Blank lines and lines starting with # are skipped, and EPD
+     *             operations after the fourth field (anything after a ';') are ignored.
+     * @return The FENs.
+     * @throws IOException If the file can't be read.
+     */
+    static List<String> readOpenings(File file) throws IOException {
+        ArrayList<String> openings = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int semicolon = line.indexOf(';');
+                line = (semicolon >= 0 ? line.substring(0, semicolon) : line).trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    openings.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return openings;
+    }
+
+    /**
+     * Play a match from the command line. The arguments are the options, then the names of the two players. The
+     * options are --games=N (default 1000), --concurrency=N (default: one game per processor), --millis=N per move
+     * (default 100), --openings=FILE (one FEN per line) and --sprt=ELO0,ELO1[,ALPHA,BETA] (alpha and beta default to
+     * 0.05).
+     * @param args The command line arguments.
+     * @throws IOException If the openings can't be read.
+     * @throws InterruptedException If interrupted while playing.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = 1000, concurrency = Runtime.getRuntime().availableProcessors(), next = 0;
+        long millis = 100;
+        List<String> openings = null;
+        double[] sprt = null;
+        while (next < args.length && args[next].startsWith("--")) {
+            String option = args[next], value = option.substring(option.indexOf('=') + 1);
+            if (option.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            } else if (option.startsWith("--concurrency=")) {
+                concurrency = Integer.parseInt(value);
+            } else if (option.startsWith("--millis=")) {
+                millis = Long.parseLong(value);
+            } else if (option.startsWith("--openings=")) {
+                openings = readOpenings(new File(value));
+            } else if (option.startsWith("--sprt=")) {
+                String[] parts = value.split(",");
+                if (parts.length != 2 && parts.length != 4) {
+                    usage();
+                }
+                sprt = new double[] {0, 0, 0.05, 0.05};
+                for (int i = 0; i < parts.length; i++) {
+                    sprt[i] = Double.parseDouble(parts[i]);
+                }
+            } else {
+                usage();
+            }
+            next++;
+        }
+        if (args.length - next != 2) {
+            usage();
+        }
+        Tournament tournament = new Tournament(args[next], args[next + 1]);
+        tournament.setGames(games);
+        tournament.setConcurrency(concurrency);
+        tournament.setMillisPerMove(millis);
+        if (openings != null) {
+            tournament.setOpenings(openings);
+        }
+        if (sprt != null) {
+            tournament.setSprt(sprt[0], sprt[1], sprt[2], sprt[3]);
+        }
+        tournament.setLog(System.out);
+        long start = System.nanoTime();
+        MatchStatistics statistics = tournament.run();
+        double hours = (System.nanoTime() - start) / 3.6e12;
+        System.out.printf("%d games in %.1f minutes (%.0f games/hour)%n", statistics.getGames(), hours * 60,
+                statistics.getGames() / Math.max(hours, 1e-9));
+    }
+
+    private static void usage() {
+        System.err.println("usage: java iseechess.player.Tournament [--games=N] [--concurrency=N] [--millis=N] " +
+                "[--openings=FILE] [--sprt=ELO0,ELO1[,ALPHA,BETA]] first second");
+        System.err.println("players: " + Players.getNames());
+        System.exit(1);
+    }
+}
@@ -0,0 +1,328 @@
+package iseechess.server;
+
+import iseechess.player.Player;
+import iseechess.player.Players;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts games of chess over TCP, speaking the compact binary Protocol, so that I See Chess can be played as a
+ * service: every client that connects gets a session with a Board of its own, which checks its moves with the Board's
+ * rules, and, if the server was given an opponent, has its moves answered by a Player.
+ *
+ * Each session runs on its own thread and simply blocks while it waits for the client. That is only cheap with
+ * virtual threads (Java 21 and later), which are used whenever the Java running the server has them; the game is
+ * built for Java 8, so they are found by reflection. On older Javas each session gets a platform thread with a small
+ * stack instead, which still manages thousands of sessions, but costs a native thread and its stack memory each.
+ *
+ * A session takes a bounded amount of memory (see GameSession; SESSION_BYTES is a generous estimate, measured with
+ * LoadGenerator), and the server takes at most maxSessions of them at once: a client beyond that is told FULL and
+ * disconnected. By default the maximum is what fits in half of the Java heap, see sessionsFitting(), which also counts
+ * what lives outside the heap: a platform thread's stack per session, and the opponents' tables.
+ *
+ * Only the platform thread path has been measured, on Java 17. The virtual thread path is untested: it is expected to
+ * be cheaper, since a blocked virtual thread keeps its few frames on the heap, but SESSION_BYTES doesn't include them.
+ *
+ * The opponents are not part of the sessions. An EnginePlayer has a 16 MB transposition table outside the heap, so one
+ * per session would take far more memory than the sessions themselves. Instead the server makes a fixed pool of
+ * opponents, one per processor by default, and a session borrows one for each move it needs answered, waiting while
+ * they are all busy. The positions of all the games share the engines' transposition tables, which only costs the
+ * engines some of what they learned.
+ *
+ * Run main() from the command line, e.g.
+ *     java -cp target/classes iseechess.server.GameServer --port=7777 --opponent=Random
+ */
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 7777;
+    static final int SESSION_BYTES = 32 * 1024; //a Board at MAX_PLIES, the socket and its buffers, with room to spare
+    private static final long PLATFORM_STACK_BYTES = 256 * 1024; //for sessions when there are no virtual threads
+
+    private final ServerSocket serverSocket;
+    private final int maxSessions;
+    private final long opponentBytes; //what the opponents allocated outside the heap
+    private final BlockingQueue<Player> opponents; //the free ones, or null if the clients play both sides
+    private final long opponentMillis;
+    private final ExecutorService sessions;
+    private final boolean virtualThreads;
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final Set<GameSession> live = Collections.newSetFromMap(new ConcurrentHashMap<GameSession, Boolean>());
+    private final Thread acceptor;
+
+    /**
+     * Start a server that lets the clients play both sides.
+     * @param port The port to listen on, or 0 for any free port (see getPort()).
+     * @param maxSessions The most sessions at once, or 0 for as many as fit in half the heap.
+     * @throws IOException If the port can't be listened on.
+     */
+    public GameServer(int port, int maxSessions) throws IOException {
+        this(port, maxSessions, null, 0, 0);
+    }
+
+    /**
+     * Start a server.
+     * @param port The port to listen on, or 0 for any free port (see getPort()).
+     * @param maxSessions The most sessions at once, or 0 for as many as fit in half the heap.
+     * @param opponent The name of the Player (see Players) that answers the clients' moves, or null to let the
+     *                 clients play both sides.
+     * @param opponentMillis How long the opponent may think about each move, in milliseconds.
+     * @param opponentCount How many opponents the sessions share, or 0 for one per processor.
+     * @throws IOException If the port can't be listened on.
+     * @throws IllegalArgumentException If there is no player with the opponent's name.
+     */
+    public GameServer(int port, int maxSessions, String opponent, long opponentMillis, int opponentCount)
+            throws IOException {
+        this.opponentMillis = opponentMillis;
+        long directBytes = directMemoryUsed();
+        if (opponent != null) {
+            int count = opponentCount > 0 ? opponentCount : Runtime.getRuntime().availableProcessors();
+            opponents = new LinkedBlockingQueue<Player>();
+            for (int i = 0; i < count; i++) {
+                Player player = Players.create(opponent);
+                player.newGame();//once, since the games share it
+                opponents.add(player);
+            }
+        } else {
+            opponents = null;
+        }
+        opponentBytes = directMemoryUsed() - directBytes;//e.g. the engines' transposition tables
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        sessions = virtual != null ? virtual : Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(null, runnable, "game session", PLATFORM_STACK_BYTES);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.maxSessions = maxSessions > 0 ? maxSessions : sessionsFitting(0.5);
+        serverSocket = new ServerSocket(port, this.maxSessions, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptSessions();
+            }
+        }, "game server");
+        acceptor.start();
+    }
+
+    /**
+     * Get the largest number of sessions that fit in part of the Java heap. The heap's size stands for the memory the
+     * server may use, so what the server keeps outside the heap comes out of the same budget: the opponents' tables
+     * are taken off first, and without virtual threads each session costs a thread stack as well as SESSION_BYTES.
+     * @param heapFraction The part of the heap the server may use, e.g. 0.5.
+     * @return The number of sessions, at least 1.
+     */
+    int sessionsFitting(double heapFraction) {
+        long bytes = (long) (Runtime.getRuntime().maxMemory() * heapFraction) - opponentBytes;
+        long perSession = SESSION_BYTES + (virtualThreads ? 0 : PLATFORM_STACK_BYTES);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / perSession));
+    }
+
+    /**
+     * Get how much memory outside the heap the Java running the server has allocated, e.g. for transposition tables.
+     * @return The bytes of the direct buffers.
+     */
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Make an executor that runs each task on a new virtual thread, if this Java has them.
+     * @return The executor, or null before Java 21.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            return null; //e.g. a Java with virtual threads as a preview feature that isn't turned on
+        }
+    }
+
+    /**
+     * Get the port the server listens on.
+     * @return The port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Get the most sessions the server plays at once.
+     * @return The limit, beyond which clients are turned away.
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Get the number of sessions being played.
+     * @return The number of connected clients.
+     */
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Check whether the sessions run on virtual threads.
+     * @return true if they do, false if they run on platform threads.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Accept clients until the server is closed, starting a session for each, or turning it away if the server is
+     * full.
+     */
+    private void acceptSessions() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                break;//closed
+            }
+            if (sessionCount.incrementAndGet() > maxSessions) {
+                sessionCount.decrementAndGet();
+                turnAway(socket);
+                continue;
+            }
+            GameSession session = new GameSession(this, socket, opponents, opponentMillis);
+            live.add(session);
+            try {
+                sessions.execute(session);
+            } catch (RejectedExecutionException e) {//closed meanwhile
+                refuse(session, socket);
+            } catch (OutOfMemoryError e) {//no more platform threads
+                refuse(session, socket);
+            }
+        }
+    }
+
+    /**
+     * Give up a session that couldn't be started, and turn its client away.
+     * @param session The session.
+     * @param socket The client's connection.
+     */
+    private void refuse(GameSession session, Socket socket) {
+        if (live.remove(session)) {
+            sessionCount.decrementAndGet();
+        }
+        turnAway(socket);
+    }
+
+    /**
+     * Tell a client the server is full and hang up.
+     * @param socket The client's connection.
+     */
+    private static void turnAway(Socket socket) {
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write(new byte[] {(byte) Protocol.VERSION, (byte) Protocol.FULL});
+            socket.close();
+        } catch (IOException e) {
+            //it's gone anyway
+        }
+    }
+
+    /**
+     * Called by a session when its client has gone.
+     * @param session The session.
+     */
+    void sessionEnded(GameSession session) {
+        if (live.remove(session)) {
+            sessionCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stop accepting clients and disconnect the ones that are playing.
+     * @throws IOException If the server socket can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (GameSession session : live) {
+            session.close();//interrupting a thread blocked reading a socket doesn't wake it, closing the socket does
+        }
+        sessions.shutdown();
+    }
+
+    /**
+     * Run a server from the command line until it is killed. The options are --port=N (default 7777),
+     * --sessions=N (default: as many as fit in half the heap), --opponent=NAME (default: none, the clients play both
+     * sides), --millis=N, the opponent's time per move (default 100), and --opponents=N, how many opponents the
+     * sessions share (default one per processor).
+     * @param args The command line arguments.
+     * @throws IOException If the port can't be listened on.
+     * @throws InterruptedException If interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT, maxSessions = 0;
+        String opponent = null;
+        long millis = 100;
+        int opponentCount = 0;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.startsWith("--sessions=")) {
+                maxSessions = Integer.parseInt(value);
+            } else if (arg.startsWith("--opponent=")) {
+                opponent = value;
+            } else if (arg.startsWith("--millis=")) {
+                millis = Long.parseLong(value);
+            } else if (arg.startsWith("--opponents=")) {
+                opponentCount = Integer.parseInt(value);
+            } else {
+                System.err.println("usage: java iseechess.server.GameServer [--port=N] [--sessions=N] " +
+                        "[--opponent=NAME] [--millis=N] [--opponents=N]");
+                System.exit(1);
+            }
+        }
+        GameServer server = new GameServer(port, maxSessions, opponent, millis, opponentCount);
+        System.out.println("Listening on port " + server.getPort() + " for up to " + server.getMaxSessions() + " sessions on " +
+                (server.usesVirtualThreads() ? "virtual" : "platform") + " threads");
+        Runtime runtime = Runtime.getRuntime();
+        while (true) {
+            Thread.sleep(10000);
+            System.out.println(server.getSessionCount() + " sessions, " +
+                    (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB of heap in use");
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package iseechess.server;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import iseechess.MoveResult;
+import iseechess.Piece;
+import iseechess.player.Player;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One client's connection to a GameServer, and the game it plays, which runs on a thread of its own (a virtual thread
+ * where there are such) reading the client's words and answering them, see Protocol.
+ *
+ * A session holds little more than its Board, and the memory it can take is bounded: the input buffer is a few bytes,
+ * replies are written straight to the socket from one four-byte array, and a game is drawn after MAX_PLIES plies, so
+ * the Board's move history can't grow without end. A client that sends nothing for IDLE_MILLIS is disconnected. The
+ * opponent isn't part of the session: it is borrowed from the server's pool for each move, see GameServer.
+ */
+class GameSession implements Runnable {
+    static final int MAX_PLIES = 512; //a game this long is drawn, so that a session's Board stays small
+    static final int IDLE_MILLIS = 5 * 60 * 1000;
+    private static final int BUFFER_BYTES = 64; //enough for a client sending several moves ahead
+    private static final long OPPONENT_LAG_MILLIS = 1000; //how late the opponent's move may be before giving up
+
+    private final GameServer server;
+    private final Socket socket;
+    private final BlockingQueue<Player> opponents;
+    private final long opponentMillis;
+    private final byte[] reply = new byte[4];
+    private Board board;
+    private int plies;
+    private boolean over;
+
+    /**
+     * Make a session.
+     * @param server The server, told when the session ends.
+     * @param socket The client's connection.
+     * @param opponents The free players that answer the clients' moves, shared by every session, or null if the
+     *                  client plays both sides.
+     * @param opponentMillis How long the opponent may think about each move.
+     */
+    GameSession(GameServer server, Socket socket, BlockingQueue<Player> opponents, long opponentMillis) {
+        this.server = server;
+        this.socket = socket;
+        this.opponents = opponents;
+        this.opponentMillis = opponentMillis;
+    }
+
+    /**
+     * Greet the client and play until it quits or goes away.
+     */
+    @Override
+    public void run() {
+        try {
+            socket.setTcpNoDelay(true);//every reply is a few bytes that the client is waiting for
+            socket.setSoTimeout(IDLE_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+            OutputStream out = socket.getOutputStream();
+            reply[0] = (byte) Protocol.VERSION;
+            reply[1] = (byte) (opponents != null ? Protocol.OPPONENT : 0);
+            out.write(reply, 0, 2);
+            newGame();
+            for (int word = in.readUnsignedShort(); word != Protocol.QUIT; word = in.readUnsignedShort()) {
+                out.write(reply, 0, handle(word));
+            }
+        } catch (EOFException e) {
+            //the client hung up without saying QUIT
+        } catch (IOException e) {
+            //the connection broke or timed out
+        } finally {
+            close();
+            server.sessionEnded(this);
+        }
+    }
+
+    /**
+     * Handle one word from the client, filling in the reply.
+     * @param word The word.
+     * @return The number of bytes of the reply.
+     * @throws IOException If the opponent fails, which ends the session.
+     */
+    private int handle(int word) throws IOException {
+        if (word == Protocol.NEW_GAME) {
+            newGame();
+            reply[0] = (byte) MoveResult.NORMAL.ordinal();
+            return 1;
+        }
+        MoveResult result = over || (word & Protocol.NEW_GAME) != 0 ? MoveResult.ILLEGAL : play(word);
+        reply[0] = (byte) result.ordinal();
+        if (opponents == null || over || result == MoveResult.ILLEGAL || result == MoveResult.NOT_YOUR_TURN) {
+            return 1;
+        }
+        int answer = Protocol.encode(chooseOpponentMove());
+        reply[1] = (byte) (answer >>> 8);
+        reply[2] = (byte) answer;
+        reply[3] = (byte) play(answer).ordinal();
+        return 4;
+    }
+
+    /**
+     * Start a new game. The opponents aren't told, since other games are using them.
+     */
+    private void newGame() {
+        board = new Board();
+        plies = 0;
+        over = false;
+    }
+
+    /**
+     * Validate and play a move with the Board's own rules, promoting a pawn that reaches the last row.
+     * @param word The move as the protocol sends it.
+     * @return The outcome of the move.
+     */
+    private MoveResult play(int word) {
+        int from = word & 63, to = (word >>> 6) & 63, promotion = (word >>> 12) & 7;
+        int[] location = {from & 7, from >>> 3}, destination = {to & 7, to >>> 3};
+        MoveResult result = board.tryMove(location, destination);
+        if (result == MoveResult.PROMOTION_PENDING) {
+            boolean white = !board.getIsWhitesTurn();
+            int type = promotion >= 1 && promotion <= 4 ? promotion : 4;//a queen if the client didn't say
+            try {
+                board.promotePawn(destination, Piece.values()[type * 2 + (white ? 0 : 1)]);
+            } catch (Board.ChessException e) {
+                throw new InternalError(); //should never happen, tryMove() just moved the pawn there
+            }
+            result = board.evaluateConditions();
+        }
+        if (result == MoveResult.ILLEGAL || result == MoveResult.NOT_YOUR_TURN) {
+            return result;
+        }
+        if (++plies >= MAX_PLIES && result != MoveResult.CHECKMATE) {
+            result = MoveResult.STALEMATE;
+        }
+        over = result == MoveResult.CHECKMATE || result == MoveResult.STALEMATE;
+        return result;
+    }
+
+    /**
+     * Borrow an opponent and ask it for its move. This thread just waits for a free opponent and then for the move,
+     * which costs nothing on a virtual thread. An opponent that takes too long is stopped, and its move is the best it
+     * has found so far, or the first legal move if it doesn't answer even then: the client's game goes on either way.
+     * @return The packed move.
+     * @throws IOException If the opponent fails.
+     */
+    private int chooseOpponentMove() throws IOException {
+        Player opponent;
+        try {
+            opponent = opponents.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        CompletableFuture<Integer> future = null;
+        try {
+            future = opponent.chooseMove(board.clone(), opponentMillis);
+            Integer move = future.get(opponentMillis + OPPONENT_LAG_MILLIS, TimeUnit.MILLISECONDS);
+            if (move == null || move == Move.NONE) {
+                throw new IOException("The opponent has no move");
+            }
+            return move;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            opponent.stop();//an engine then answers with the best move it has found so far
+            return stoppedOpponentMove(future);
+        } finally {
+            opponents.add(opponent);
+        }
+    }
+
+    /**
+     * Get the move of an opponent that was stopped for taking too long.
+     * @param future The future of the opponent's move.
+     * @return The move the opponent answers with within OPPONENT_LAG_MILLIS of being stopped, or else the first legal
+     *         move.
+     * @throws IOException If interrupted while waiting.
+     */
+    private int stoppedOpponentMove(Future<Integer> future) throws IOException {
+        try {
+            Integer move = future.get(OPPONENT_LAG_MILLIS, TimeUnit.MILLISECONDS);
+            if (move != null && move != Move.NONE) {
+                return move;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            //fall back on any legal move
+        } catch (TimeoutException e) {
+            //fall back on any legal move
+        }
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        return moves.get(0);//the game isn't over, so there is one
+    }
+
+    /**
+     * Close the connection, e.g. when the server shuts down.
+     */
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //nothing more can be done
+        }
+    }
+}
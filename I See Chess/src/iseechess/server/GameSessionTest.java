@@ -0,0 +1,102 @@
+package iseechess.server;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveResult;
+import iseechess.player.Player;
+import org.junit.Test;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of a GameSession whose opponent runs out of time, which GameServer can't be given from the outside, since it
+ * makes its opponents by name.
+ */
+public class GameSessionTest {
+    @Test
+    /**
+     * An opponent that is still thinking when its time is up is stopped, and the client gets the move it answers
+     * with; one that doesn't answer even then is replaced by a legal move. The session goes on either way.
+     */
+    public void testOpponentTimeout() throws IOException, InterruptedException {
+        GameServer server = new GameServer(0, 1);
+        ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        try {
+            int e2e4 = 12 | 28 << 6, e7e5 = 52 | 36 << 6, g1f3 = 6 | 21 << 6;
+            Board board = new Board();
+            board.makeMove(Protocol.decode(board, e2e4));
+            BlockingQueue<Player> opponents = new LinkedBlockingQueue<Player>();
+            opponents.add(slowPlayer(Protocol.decode(board, e7e5)));
+            Socket client = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+            Thread session = new Thread(new GameSession(server, listener.accept(), opponents, 10));
+            session.start();
+            DataInputStream in = new DataInputStream(client.getInputStream());
+            DataOutputStream out = new DataOutputStream(client.getOutputStream());
+            assertEquals(Protocol.VERSION, in.readUnsignedByte());
+            assertEquals(Protocol.OPPONENT, in.readUnsignedByte());
+
+            out.writeShort(e2e4);
+            assertEquals(MoveResult.NORMAL, Protocol.result(in.readUnsignedByte()));
+            assertEquals(e7e5, in.readUnsignedShort());//what the opponent answered when stopped
+            assertEquals(MoveResult.NORMAL, Protocol.result(in.readUnsignedByte()));
+            board.makeMove(Protocol.decode(board, e7e5));
+
+            opponents.clear();
+            opponents.add(slowPlayer(Move.NONE));
+            out.writeShort(g1f3);
+            board.makeMove(Protocol.decode(board, g1f3));
+            assertEquals(MoveResult.NORMAL, Protocol.result(in.readUnsignedByte()));
+            assertNotEquals(Move.NONE, Protocol.decode(board, in.readUnsignedShort()));//a legal move all the same
+            assertEquals(MoveResult.NORMAL, Protocol.result(in.readUnsignedByte()));
+
+            out.writeShort(Protocol.QUIT);
+            assertEquals(-1, in.read());
+            session.join(1000);
+            assertFalse(session.isAlive());
+            client.close();
+        } finally {
+            listener.close();
+            server.close();
+        }
+    }
+
+    /**
+     * Make an opponent that never answers in time.
+     * @param stopped The move it answers with when stopped, or Move.NONE never to answer.
+     * @return The player.
+     */
+    private static Player slowPlayer(final int stopped) {
+        return new Player() {
+            private CompletableFuture<Integer> pending;
+
+            @Override
+            public String getName() {
+                return "Slow";
+            }
+
+            @Override
+            public void newGame() {}
+
+            @Override
+            public synchronized CompletableFuture<Integer> chooseMove(Board board, long millis) {
+                pending = new CompletableFuture<Integer>();
+                return pending;
+            }
+
+            @Override
+            public synchronized void stop() {
+                if (pending != null && stopped != Move.NONE) {
+                    pending.complete(stopped);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,337 @@
+package iseechess.server;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import iseechess.MoveResult;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A client for load testing a GameServer: it holds many sessions open at once and plays random games in all of them
+ * as fast as the server answers, checking every answer against its own copy of each game.
+ *
+ * A few worker threads share the sessions, each sending a move in every one of its sessions and then reading all the
+ * answers, so the client needs neither a thread per session nor to wait for one answer before sending the next move.
+ *
+ * Run main() from the command line against a running server, or with --in-process to start a server in the same JVM
+ * and also measure how much heap each session takes, e.g.
+ *     java -Xmx1g -cp target/classes iseechess.server.LoadGenerator --in-process --sessions=2000 --seconds=10
+ */
+public class LoadGenerator implements Closeable {
+    private final ArrayList<Connection> connections = new ArrayList<Connection>();
+    private final AtomicLong moves = new AtomicLong(), games = new AtomicLong(), errors = new AtomicLong();
+    private int refused;
+
+    /**
+     * One session, with the client's copy of its game.
+     */
+    private static class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private final Random random;
+        private final byte[] word = new byte[2];
+        private final MoveList legal = new MoveList();
+        private Board board = new Board();
+        private boolean opponent, over;
+
+        Connection(Socket socket, long seed) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64));
+            out = socket.getOutputStream();
+            random = new Random(seed);
+        }
+
+        /**
+         * Send a word to the server.
+         * @param value The word.
+         * @throws IOException If the connection is broken.
+         */
+        void send(int value) throws IOException {
+            word[0] = (byte) (value >>> 8);
+            word[1] = (byte) value;
+            out.write(word);
+        }
+    }
+
+    /**
+     * Open sessions with a server.
+     * @param address The server's address.
+     * @param port The server's port.
+     * @param sessions How many sessions to open.
+     * @return The number of sessions the server accepted; the rest were turned away because it was full.
+     * @throws IOException If a connection fails.
+     */
+    public int connect(InetAddress address, int port, int sessions) throws IOException {
+        int accepted = 0;
+        for (int i = 0; i < sessions; i++) {
+            Connection connection = new Connection(new Socket(address, port), connections.size());
+            int version = connection.in.readUnsignedByte(), flags = connection.in.readUnsignedByte();
+            if (version != Protocol.VERSION || flags == Protocol.FULL) {
+                connection.socket.close();
+                refused++;
+                continue;
+            }
+            connection.opponent = (flags & Protocol.OPPONENT) != 0;
+            connections.add(connection);
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Get the number of sessions open.
+     * @return The number of sessions.
+     */
+    public int getSessions() {
+        return connections.size();
+    }
+
+    /**
+     * Get the number of sessions the server turned away.
+     * @return The number of connections refused because the server was full.
+     */
+    public int getRefused() {
+        return refused;
+    }
+
+    /**
+     * Get the number of moves played so far, the server's included.
+     * @return The number of moves.
+     */
+    public long getMoves() {
+        return moves.get();
+    }
+
+    /**
+     * Get the number of games played to the end so far.
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games.get();
+    }
+
+    /**
+     * Get the number of answers from the server that didn't agree with the client's copy of the game.
+     * @return The number of errors, which should be 0.
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Play random games in every session.
+     * @param millis How long to play for.
+     * @param workers How many threads to share the sessions between.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public void play(final long millis, int workers) throws InterruptedException {
+        final long end = System.nanoTime() + millis * 1000000;
+        Thread[] threads = new Thread[Math.max(1, Math.min(workers, connections.size()))];
+        for (int w = 0; w < threads.length; w++) {
+            final List<Connection> share = new ArrayList<Connection>();
+            for (int i = w; i < connections.size(); i += threads.length) {
+                share.add(connections.get(i));
+            }
+            threads[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (System.nanoTime() < end) {
+                            for (Connection connection : share) {
+                                sendMove(connection);
+                            }
+                            for (Connection connection : share) {
+                                readAnswer(connection);
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        e.printStackTrace();
+                    }
+                }
+            }, "load generator " + w);
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Send a random legal move, or NEW_GAME if the game is over.
+     * @param connection The session.
+     * @throws IOException If the connection is broken.
+     */
+    private static void sendMove(Connection connection) throws IOException {
+        if (connection.over) {
+            connection.send(Protocol.NEW_GAME);
+            return;
+        }
+        connection.legal.clear();
+        connection.board.generateMoves(connection.legal);
+        if (connection.legal.size() == 0) {//only if the server disagreed about the end of the game
+            connection.over = true;
+            connection.send(Protocol.NEW_GAME);
+            return;
+        }
+        int move = connection.legal.get(connection.random.nextInt(connection.legal.size()));
+        connection.board.makeMove(move);
+        connection.send(Protocol.encode(move));
+    }
+
+    /**
+     * Read the server's answer to what sendMove() sent, and check it.
+     * @param connection The session.
+     * @throws IOException If the connection is broken.
+     */
+    private void readAnswer(Connection connection) throws IOException {
+        MoveResult result = Protocol.result(connection.in.readUnsignedByte());
+        if (connection.over) {
+            connection.board = new Board();
+            connection.over = false;
+            check(result == MoveResult.NORMAL);
+            return;
+        }
+        moves.incrementAndGet();
+        if (!moveAnswered(connection, result) && connection.opponent) {
+            int move = Protocol.decode(connection.board, connection.in.readUnsignedShort());
+            MoveResult reply = Protocol.result(connection.in.readUnsignedByte());
+            check(move != Move.NONE);
+            if (move != Move.NONE) {
+                connection.board.makeMove(move);
+                moves.incrementAndGet();
+                moveAnswered(connection, reply);
+            }
+        }
+    }
+
+    /**
+     * Check the result of a move, and note the end of the game.
+     * @param connection The session.
+     * @param result What the server said the move led to.
+     * @return true if the game is over.
+     */
+    private boolean moveAnswered(Connection connection, MoveResult result) {
+        check(result != MoveResult.ILLEGAL && result != MoveResult.NOT_YOUR_TURN);
+        MoveResult expected = connection.board.evaluateConditions();
+        //the server also draws games that reach GameSession.MAX_PLIES
+        check(result == expected || result == MoveResult.STALEMATE);
+        connection.over = result == MoveResult.CHECKMATE || result == MoveResult.STALEMATE;
+        if (connection.over) {
+            games.incrementAndGet();
+        }
+        return connection.over;
+    }
+
+    /**
+     * Count an error if something that should be true isn't.
+     * @param ok The thing that should be true.
+     */
+    private void check(boolean ok) {
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Say goodbye in every session and close them.
+     */
+    @Override
+    public void close() {
+        for (Connection connection : connections) {
+            try {
+                connection.send(Protocol.QUIT);
+                connection.socket.close();
+            } catch (IOException e) {
+                //it's closed either way
+            }
+        }
+        connections.clear();
+    }
+
+    /**
+     * Measure the heap in use, after collecting the garbage.
+     * @return The bytes in use.
+     * @throws InterruptedException If interrupted while waiting for the collector.
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Load test a server from the command line. The options are --host=NAME and --port=N of the server (default
+     * localhost and 7777), or --in-process to start one in this JVM; --sessions=N (default 1000), --workers=N (default
+     * 4) and --seconds=N to play for (default 10).
+     * @param args The command line arguments.
+     * @throws IOException If a connection fails.
+     * @throws InterruptedException If interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = "localhost";
+        int port = GameServer.DEFAULT_PORT, sessions = 1000, workers = 4, seconds = 10;
+        boolean inProcess = false;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--host=")) {
+                host = value;
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.equals("--in-process")) {
+                inProcess = true;
+            } else if (arg.startsWith("--sessions=")) {
+                sessions = Integer.parseInt(value);
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(value);
+            } else if (arg.startsWith("--seconds=")) {
+                seconds = Integer.parseInt(value);
+            } else {
+                System.err.println("usage: java iseechess.server.LoadGenerator [--host=NAME] [--port=N] [--in-process] " +
+                        "[--sessions=N] [--workers=N] [--seconds=N]");
+                System.exit(1);
+            }
+        }
+        GameServer server = inProcess ? new GameServer(0, sessions) : null;
+        InetAddress address = inProcess ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host);
+        LoadGenerator generator = new LoadGenerator();
+        long before = inProcess ? usedHeap() : 0;
+        generator.connect(address, inProcess ? server.getPort() : port, sessions);
+        System.out.println(generator.getSessions() + " sessions open, " + generator.getRefused() + " refused" +
+                (inProcess ? ", on " + (server.usesVirtualThreads() ? "virtual" : "platform") + " threads" : ""));
+        if (inProcess) {
+            //both ends of every session are in this JVM; the client's end is a Board and a socket too
+            System.out.println("heap per session, client and server together: " +
+                    (usedHeap() - before) / Math.max(1, generator.getSessions()) + " bytes");
+        }
+        long start = System.nanoTime();
+        generator.play(seconds * 1000L, workers);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d moves in %.1f s (%.0f moves/s), %d games finished, %d errors%n", generator.getMoves(),
+                elapsed, generator.getMoves() / elapsed, generator.getGames(), generator.getErrors());
+        if (inProcess) {
+            System.out.println("heap per session after playing: " +
+                    (usedHeap() - before) / Math.max(1, generator.getSessions()) + " bytes");
+        }
+        generator.close();
+        if (server != null) {
+            server.close();
+        }
+    }
+}
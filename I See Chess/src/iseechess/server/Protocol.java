@@ -0,0 +1,71 @@
+package iseechess.server;
+
+import iseechess.Board;
+import iseechess.Move;
+import iseechess.MoveList;
+import iseechess.MoveResult;
+
+/**
+ * The binary protocol spoken between a GameServer and its clients. It is made to be small, so that thousands of games
+ * can be played over one machine's loopback or network without the protocol being the bottleneck.
+ *
+ * On connecting, the server sends two bytes: VERSION, then either a set of flags (OPPONENT if the server answers each
+ * move with one of its own) or FULL, in which case it closes the connection because it has as many sessions as it may.
+ *
+ * From then on the client sends 16-bit big-endian words: a move, or NEW_GAME or QUIT. A move is
+ *     from | to << 6 | promotion << 12
+ * where from and to are square numbers (a1 is 0, h8 is 63) and promotion is 0 for none, or the type of the piece the
+ * pawn becomes: 1 knight, 2 bishop, 3 rook, 4 queen (the Piece ordinal / 2). The top bit is always clear.
+ *
+ * The server answers every word with one byte, the ordinal of the MoveResult of the move: NORMAL, CHECK, CHECKMATE,
+ * STALEMATE (any draw), ILLEGAL or NOT_YOUR_TURN. NEW_GAME is answered with NORMAL. Moves sent after the game is over
+ * are ILLEGAL. If the server has an OPPONENT and the client's move was played without ending the game, the byte is
+ * followed by the opponent's move (a word, as above) and its MoveResult byte: four bytes in all.
+ */
+public final class Protocol {
+    public static final int VERSION = 1;
+    public static final int OPPONENT = 1, FULL = 0x80; //the second byte of the greeting
+    public static final int NEW_GAME = 0x8000, QUIT = 0x8001;
+
+    private Protocol() {}
+
+    /**
+     * Write a move the way the protocol sends it.
+     * @param move The packed move, see the Move class.
+     * @return The 16-bit word.
+     */
+    public static int encode(int move) {
+        int promotion = Move.promotion(move) == null ? 0 : Move.promotion(move).ordinal() / 2;
+        return Move.from(move) | Move.to(move) << 6 | promotion << 12;
+    }
+
+    /**
+     * Find the legal move a word stands for.
+     * @param board The position.
+     * @param word The move as the protocol sends it.
+     * @return The packed move, or Move.NONE if it isn't legal.
+     */
+    public static int decode(Board board, int word) {
+        MoveList moves = new MoveList();
+        board.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (encode(moves.get(i)) == word) {
+                return moves.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Read a MoveResult sent by the server.
+     * @param status The byte.
+     * @return The MoveResult.
+     * @throws IllegalArgumentException If the byte isn't a MoveResult.
+     */
+    public static MoveResult result(int status) {
+        if (status < 0 || status >= MoveResult.values().length) {
+            throw new IllegalArgumentException("Not a move result: " + status);
+        }
+        return MoveResult.values()[status];
+    }
+}